@@ -0,0 +1,63 @@
+package com.example.lotterymgmtapi.engine;
+
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the counting sort of {@link LineSorter} with the original comparator sort
+ * previously done in LotteryService.sortTicketsByLines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineSorterBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private PackedLines lines;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> numbers = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            numbers.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+        lines = PackedLines.fromNumbers(numbers);
+    }
+
+    @Benchmark
+    public PackedLines comparatorSort() {
+        List<Line> sorted = lines.toLines().stream()
+                .sorted(Comparator.comparingInt(Line::getResult).reversed())
+                .collect(Collectors.toList());
+        return PackedLines.fromLines(sorted);
+    }
+
+    @Benchmark
+    public PackedLines countingSort() {
+        return LineSorter.sort(lines, false);
+    }
+
+    @Benchmark
+    public void lazyOrder(Blackhole blackhole) {
+        PrimitiveIterator.OfInt order = LineSorter.order(lines, false);
+        while (order.hasNext()) {
+            blackhole.consume(order.nextInt());
+        }
+    }
+}
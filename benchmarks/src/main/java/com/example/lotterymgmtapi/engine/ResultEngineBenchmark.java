@@ -0,0 +1,71 @@
+package com.example.lotterymgmtapi.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table based {@link ResultEngine} with the original per-line parsing
+ * (three substring + Integer.parseInt calls) previously done in LotteryService.computeResult.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultEngineBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private List<String> lines;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public void parseAndCompute(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(legacyComputeResult(line));
+        }
+    }
+
+    @Benchmark
+    public void tableLookup(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(ResultEngine.computeResult(line));
+        }
+    }
+
+    /**
+     * The original implementation of LotteryService.computeResult, kept as the baseline.
+     */
+    private static int legacyComputeResult(String numbersInLine) {
+        int result;
+        int num1 = Integer.parseInt(numbersInLine.substring(0, 1));
+        int num2 = Integer.parseInt(numbersInLine.substring(1, 2));
+        int num3 = Integer.parseInt(numbersInLine.substring(2, 3));
+
+        if (num1 + num2 + num3 == 2) {
+            result = 10;
+        } else if ((num1 == num2) && (num2 == num3)) {
+            result = 5;
+        } else if ((num1 != num2) && (num1 != num3)) {
+            result = 1;
+        } else {
+            result = 0;
+        }
+        return result;
+    }
+}
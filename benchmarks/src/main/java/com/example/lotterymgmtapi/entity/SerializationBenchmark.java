@@ -0,0 +1,47 @@
+package com.example.lotterymgmtapi.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of {@link LotteryTicketResponse}, the body of most end points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private ObjectWriter writer;
+
+    private LotteryTicketResponse response;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+        writer = new ObjectMapper().writerFor(LotteryTicketResponse.class);
+        response = new LotteryTicketResponse("5f29e3c036e952151b624571", lines, "user1", new Date(), new Date(), false);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
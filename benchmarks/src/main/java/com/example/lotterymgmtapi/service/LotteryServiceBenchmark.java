@@ -0,0 +1,71 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request mapping and sorting done in {@link LotteryService}, without the DB round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LotteryServiceBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private LotteryTicketRequest request;
+
+    private PackedLines lines;
+
+    private LotteryTicket ticket;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> numbers = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            numbers.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+        request = new LotteryTicketRequest(numbers, "user1");
+        ticket = LotteryService.prepareLotteryTicketFromRequest(request);
+        ticket.setId("5f29e3c036e952151b624571");
+        lines = ticket.getPackedLines();
+    }
+
+    @Benchmark
+    public LotteryTicket prepareLotteryTicketFromRequest() {
+        return LotteryService.prepareLotteryTicketFromRequest(request);
+    }
+
+    @Benchmark
+    public LotteryTicketResponse prepareLotteryResponse() {
+        return LotteryService.prepareLotteryResponse(ticket);
+    }
+
+    /**
+     * The lines are reset before each call, otherwise every call after the first sorts already sorted lines.
+     */
+    @Benchmark
+    public LotteryTicket sortTicketsByLinesAscending() {
+        ticket.setPackedLines(lines);
+        return LotteryService.sortTicketsByLines(ticket, "asc");
+    }
+
+    @Benchmark
+    public LotteryTicket sortTicketsByLinesDescending() {
+        ticket.setPackedLines(lines);
+        return LotteryService.sortTicketsByLines(ticket, "desc");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.lotterymgmtapi.validation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass {@link LineValidator} with the original regex validation
+ * previously done in LotteryController.areLinesValid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineValidationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private List<String> lines;
+
+    private final LineValidator lineValidator = new LineValidator();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return legacyAreLinesValid(lines);
+    }
+
+    @Benchmark
+    public LineValidationResult lineValidator() {
+        return lineValidator.validate(lines);
+    }
+
+    /**
+     * The original implementation of LotteryController.areLinesValid, kept as the baseline.
+     */
+    private static boolean legacyAreLinesValid(List<String> lines) {
+        String pattern = "^[0-2]{3}$";
+        return !lines.isEmpty() && lines.stream().allMatch(line -> line.matches(pattern));
+    }
+}
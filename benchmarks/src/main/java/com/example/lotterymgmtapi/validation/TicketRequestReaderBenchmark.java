@@ -0,0 +1,59 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding a ticket request body to {@link LotteryTicketRequest} and validating it with
+ * {@link LineValidator} against reading it with {@link TicketRequestReader}.
+ * Run with {@code -prof gc} to compare the allocation rate per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketRequestReaderBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lineCount;
+
+    private byte[] body;
+
+    private ObjectMapper mapper;
+
+    private final LineValidator lineValidator = new LineValidator();
+
+    private TicketRequestReader reader;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"userId\": \"user1\", \"lines\": [");
+        for (int i = 0; i < lineCount; i++) {
+            json.append(i == 0 ? "\"" : ", \"").append(random.nextInt(3)).append(random.nextInt(3)).append(random.nextInt(3)).append('"');
+        }
+        body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        mapper = new ObjectMapper();
+        reader = new TicketRequestReader(mapper, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public LineValidationResult bindAndValidate() throws IOException {
+        LotteryTicketRequest request = mapper.readValue(new ByteArrayInputStream(body), LotteryTicketRequest.class);
+        return lineValidator.validate(request.getLines());
+    }
+
+    @Benchmark
+    public ParsedTicketRequest streamingRead() throws IOException, InvalidTicketRequestException {
+        return reader.read(new ByteArrayInputStream(body));
+    }
+}
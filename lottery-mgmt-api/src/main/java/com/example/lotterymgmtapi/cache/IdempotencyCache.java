@@ -0,0 +1,147 @@
+package com.example.lotterymgmtapi.cache;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of the tickets created by requests with an Idempotency-Key, by user id and key.
+ * <p>
+ * A retry served from this cache is answered with the ticket originally created without any DB call.
+ * Entries expire with the idempotency window, the idempotencyKeys collection remains the reference
+ * for retries that miss the cache, eg: on another instance.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    private final Cache<IdempotencyRecord.Key, CreatedTicket> cache;
+
+    private final Duration ttl;
+
+    private final Duration lease;
+
+    /**
+     * Instantiates a new Idempotency cache.
+     *
+     * @param maximumSize the maximum number of keys in the cache
+     * @param ttl         the idempotency window
+     * @param lease       the time a request has to create its ticket before a retry can take its key over
+     */
+    @Autowired
+    public IdempotencyCache(@Value("${lottery.idempotency.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${lottery.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${lottery.idempotency.lease:30s}") Duration lease) {
+        this(maximumSize, ttl, lease, Ticker.systemTicker());
+    }
+
+    IdempotencyCache(long maximumSize, Duration ttl, Duration lease, Ticker ticker) {
+        this.ttl = ttl;
+        this.lease = lease;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the ticket created by the request with a key.
+     *
+     * @param key the user id and idempotency key
+     * @return the created ticket, null if the key is not cached
+     */
+    public CreatedTicket get(IdempotencyRecord.Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Put the ticket created by the request with a key.
+     *
+     * @param key         the user id and idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @param ticket      the created ticket
+     */
+    public void put(IdempotencyRecord.Key key, String fingerprint, LotteryTicketResponse ticket) {
+        cache.put(key, new CreatedTicket(fingerprint, ticket));
+    }
+
+    /**
+     * Remove a key, once the ticket created by its request is known to be lost.
+     *
+     * @param key the user id and idempotency key
+     */
+    public void invalidate(IdempotencyRecord.Key key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Gets the idempotency window.
+     *
+     * @return the time during which a key identifies the request that first used it
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Gets the lease of a key reservation.
+     *
+     * @return the time a request has to create its ticket before a retry can take its key over
+     */
+    public Duration getLease() {
+        return lease;
+    }
+
+    /**
+     * Publish the statistics of the cache as the metrics of the "idempotency" cache.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "idempotency");
+    }
+
+    /**
+     * A ticket created by a request with an Idempotency-Key and the fingerprint of the request.
+     */
+    public static final class CreatedTicket {
+        private final String fingerprint;
+
+        private final LotteryTicketResponse ticket;
+
+        CreatedTicket(String fingerprint, LotteryTicketResponse ticket) {
+            this.fingerprint = fingerprint;
+            this.ticket = ticket;
+        }
+
+        /**
+         * Gets fingerprint.
+         *
+         * @return the fingerprint of the request
+         */
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Gets ticket.
+         *
+         * @return the created ticket
+         */
+        public LotteryTicketResponse getTicket() {
+            return ticket;
+        }
+    }
+}
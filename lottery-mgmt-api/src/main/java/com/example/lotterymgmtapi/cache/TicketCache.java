@@ -0,0 +1,155 @@
+package com.example.lotterymgmtapi.cache;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of lottery tickets by id.
+ * <p>
+ * The cache is bounded in size and entries expire after a TTL. Once the status of a ticket has
+ * been checked the ticket can never change again, so such entries are pinned: they do not
+ * expire and are only removed when evicted by size.
+ */
+@Component
+public class TicketCache implements MeterBinder {
+
+    private final Cache<String, LotteryTicketResponse> cache;
+
+    /**
+     * Instantiates a new Ticket cache.
+     *
+     * @param maximumSize the maximum number of tickets in the cache
+     * @param ttl         the time to live of tickets that can still change
+     */
+    @Autowired
+    public TicketCache(@Value("${lottery.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${lottery.cache.ttl:10m}") Duration ttl) {
+        this(maximumSize, ttl, Ticker.systemTicker());
+    }
+
+    TicketCache(long maximumSize, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TicketExpiry(ttl.toNanos()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets a ticket.
+     *
+     * @param id the id
+     * @return the ticket, null if it is not cached
+     */
+    public LotteryTicketResponse get(String id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Put a ticket, unless a later version of the ticket is already cached. A ticket without id is not cached.
+     * <p>
+     * Readers put the ticket they read from the DB after writers may have cached a later version: the
+     * ticket is merged atomically with the cached one, so that a late reader can not bring back an older
+     * version, nor replace a status checked ticket which can never change again.
+     *
+     * @param ticket the ticket
+     */
+    public void put(LotteryTicketResponse ticket) {
+        if (ticket.getId() != null) {
+            cache.asMap().merge(ticket.getId(), ticket, TicketCache::latest);
+        }
+    }
+
+    /**
+     * Invalidate a ticket.
+     *
+     * @param id the id
+     */
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics.
+     *
+     * @return the cache stats
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Gets the approximate number of tickets in the cache.
+     *
+     * @return the size
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Publish the statistics of the cache as the metrics of the "tickets" cache(cache.gets, cache.evictions ...).
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tickets");
+    }
+
+    /**
+     * The latest of the cached ticket and a ticket put in the cache.
+     */
+    static LotteryTicketResponse latest(LotteryTicketResponse cached, LotteryTicketResponse ticket) {
+        if (cached.isStatusEnquired()) {
+            return cached;
+        }
+        if (ticket.isStatusEnquired() || versionOf(ticket) > versionOf(cached)) {
+            return ticket;
+        }
+        return cached;
+    }
+
+    private static long versionOf(LotteryTicketResponse ticket) {
+        return ticket.getVersion() == null ? 0 : ticket.getVersion();
+    }
+
+    /**
+     * Tickets expire after the TTL from their last write, status checked tickets never expire.
+     */
+    private static class TicketExpiry implements Expiry<String, LotteryTicketResponse> {
+        private final long ttlNanos;
+
+        TicketExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String id, LotteryTicketResponse ticket, long currentTime) {
+            return ticket.isStatusEnquired() ? Long.MAX_VALUE : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, LotteryTicketResponse ticket, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, ticket, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, LotteryTicketResponse ticket, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
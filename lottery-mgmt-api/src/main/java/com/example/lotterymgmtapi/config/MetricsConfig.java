@@ -0,0 +1,38 @@
+package com.example.lotterymgmtapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Record the methods annotated with {@link io.micrometer.core.annotation.Timed}.
+     *
+     * @param meterRegistry the meter registry
+     * @return the timed aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Time every command sent to Mongo(mongodb.driver.commands) and monitor the connection pools(mongodb.driver.pool),
+     * for both the blocking and the reactive clients.
+     *
+     * @param meterRegistry the meter registry
+     * @return the Mongo client settings customizer
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)));
+    }
+}
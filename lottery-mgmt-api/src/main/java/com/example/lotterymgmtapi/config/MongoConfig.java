@@ -0,0 +1,20 @@
+package com.example.lotterymgmtapi.config;
+
+import com.example.lotterymgmtapi.converter.PackedLinesConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Register the custom conversions used by the DB Model.
+     *
+     * @return the mongo custom conversions
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(PackedLinesConverters.getConverters());
+    }
+}
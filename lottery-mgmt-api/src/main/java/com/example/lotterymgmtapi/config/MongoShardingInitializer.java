@@ -0,0 +1,73 @@
+package com.example.lotterymgmtapi.config;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.HashedIndex;
+import org.springframework.data.mongodb.core.mapping.ShardKey;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shards the tickets collection on the shard key declared on {@link LotteryTicket} when the application starts,
+ * before any request is served. Only active when lottery.mongo.sharding.enabled is true, the application
+ * must then be connected to a mongos.
+ * <p>
+ * Sharding an already sharded collection with the same key is a no-op, so the initializer runs on every start.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lottery.mongo.sharding", name = "enabled", havingValue = "true")
+public class MongoShardingInitializer implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoShardingInitializer.class);
+
+    private static final String HASHED = "hashed";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        shardCollection(LotteryTicket.class);
+    }
+
+    /**
+     * Enable sharding on the database and shard the collection of an entity on its shard key.
+     *
+     * @param entityClass the entity, annotated with {@link org.springframework.data.mongodb.core.mapping.Sharded}
+     */
+    void shardCollection(Class<?> entityClass) {
+        ShardKey shardKey = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityClass).getShardKey();
+        if (!shardKey.isSharded()) {
+            throw new IllegalArgumentException(entityClass.getSimpleName() + " has no shard key");
+        }
+        Document key = shardKeyOf(shardKey);
+        String database = mongoTemplate.getDb().getName();
+        String namespace = database + "." + mongoTemplate.getCollectionName(entityClass);
+        // A non empty collection can only be sharded on a hashed key once the hashed index exists
+        key.forEach((field, type) -> {
+            if (HASHED.equals(type)) {
+                mongoTemplate.indexOps(entityClass).ensureIndex(HashedIndex.hashed(field));
+            }
+        });
+        MongoDatabase admin = mongoTemplate.getMongoDbFactory().getMongoDatabase("admin");
+        admin.runCommand(new Document("enableSharding", database));
+        admin.runCommand(new Document("shardCollection", namespace).append("key", key));
+        logger.info("Sharded " + namespace + " on " + key.toJson());
+    }
+
+    /**
+     * The key of the shardCollection command. The shard key document of Spring Data marks hashed fields
+     * with "hash" where the server expects "hashed".
+     */
+    static Document shardKeyOf(ShardKey shardKey) {
+        Document key = new Document();
+        shardKey.getDocument().forEach((field, type) -> key.append(field, "hash".equals(type) ? HASHED : type));
+        return key;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.lotterymgmtapi.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.WebFilter;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    /**
+     * Serve the reactive execution mode with Netty. Tomcat is also on the classpath for the
+     * servlet execution mode and would otherwise be preferred.
+     *
+     * @return the netty reactive web server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Send Vary: Accept with every response of the lottery end points, as the same URL is served as JSON or Smile
+     * depending on the Accept header of the request.
+     *
+     * @return the web filter
+     */
+    @Bean
+    public WebFilter varyByAcceptWebFilter() {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getPath().value().startsWith("/lotteryapi/")) {
+                exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return chain.filter(exchange);
+        };
+    }
+}
@@ -4,6 +4,7 @@ package com.example.lotterymgmtapi.config;
 import com.google.common.base.Predicate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -15,6 +16,7 @@ import static com.google.common.base.Predicates.or;
 import static springfox.documentation.builders.PathSelectors.regex;
 
 @Configuration
+@Profile("!reactive")
 @EnableSwagger2
 public class SwaggerConfig {
 
@@ -35,7 +37,8 @@ public class SwaggerConfig {
     }
 
     private Predicate<String> getPaths() {
-        return or(regex("/lotteryapi/v1/ticket.*"), regex("/lotteryapi/v1/status.*"));
+        return or(regex("/lotteryapi/v1/ticket.*"), regex("/lotteryapi/v1/status.*"), regex("/lotteryapi/v1/users.*"),
+                regex("/lotteryapi/v1/stats.*"));
     }
 
     private ApiInfo apiInfo() {
@@ -0,0 +1,65 @@
+package com.example.lotterymgmtapi.config;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig implements WebMvcConfigurer {
+
+    /**
+     * The executor that runs the requests and the streaming responses, shut down with the context once Tomcat has
+     * stopped.
+     *
+     * @return an executor that starts a virtual thread per task
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Handle the Tomcat requests on virtual threads instead of the bounded worker pool(server.tomcat.threads.max).
+     * The blocking repository calls made by a request then park its virtual thread rather than hold a platform thread.
+     *
+     * @return the tomcat protocol handler customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor());
+    }
+
+    /**
+     * Write the streaming responses(GET /ticket/stream) on virtual threads too.
+     *
+     * @param configurer the async support configurer
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(virtualThreadExecutor()));
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), looked up at runtime since the application is still built for Java 11.
+     *
+     * @return an executor that starts a virtual thread per task
+     * @throws IllegalStateException if the runtime has no virtual threads(before Java 21)
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("The virtual-threads profile needs Java 21 or later, running on Java "
+                    + Runtime.version().feature(), e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.lotterymgmtapi.config;
+
+import com.example.lotterymgmtapi.metrics.RejectedRequestInterceptor;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Configuration
+@Profile("!reactive")
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    RejectedRequestInterceptor rejectedRequestInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rejectedRequestInterceptor).addPathPatterns("/lotteryapi/**");
+        registry.addInterceptor(new VaryByAcceptInterceptor()).addPathPatterns("/lotteryapi/**");
+    }
+
+    /**
+     * Serve responses as Smile(binary JSON) to clients that accept application/x-jackson-smile.
+     * Repeated string values are written once and referred back to, so the lines of a ticket,
+     * which only take 27 distinct values, mostly take a single byte each.
+     *
+     * @param builder the object mapper builder configured by spring.jackson.* properties
+     * @return the smile message converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory).build());
+    }
+
+    /**
+     * Serve responses as CBOR to clients that accept application/cbor.
+     *
+     * @param builder the object mapper builder configured by spring.jackson.* properties
+     * @return the cbor message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Sends Vary: Accept with every response, 304 included, as the same URL is served as JSON, Smile or CBOR
+     * depending on the Accept header of the request.
+     */
+    static class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,765 @@
+package com.example.lotterymgmtapi.controller;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketBatchResult;
+import com.example.lotterymgmtapi.entity.LotteryTicketError;
+import com.example.lotterymgmtapi.entity.LotteryTicketLinesResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketSummaryResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.entity.TicketStatsResponse;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.repository.RepositoryConcurrencyLimitException;
+import com.example.lotterymgmtapi.service.IdempotencyKeyConflictException;
+import com.example.lotterymgmtapi.service.LotteryService;
+import com.example.lotterymgmtapi.service.TicketQueueFullException;
+import com.example.lotterymgmtapi.service.TicketStatsService;
+import com.example.lotterymgmtapi.validation.InvalidTicketRequestException;
+import com.example.lotterymgmtapi.validation.LineValidationResult;
+import com.example.lotterymgmtapi.validation.LineValidator;
+import com.example.lotterymgmtapi.validation.ParsedTicketRequest;
+import com.example.lotterymgmtapi.validation.TicketRequestReader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import springfox.documentation.annotations.ApiIgnore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AccessDeniedException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@RestController
+@Profile("!reactive")
+@Api(value = "Controller handles all end points related to lottery management API")
+@RequestMapping("/lotteryapi/v1")
+public class LotteryController {
+
+    /**
+     * Response header holding the token of the next page of tickets.
+     */
+    public static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
+    /**
+     * Request header identifying a create ticket request across retries.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    static final String JSON_REPRESENTATION = "";
+
+    static final String SMILE_REPRESENTATION = "-smile";
+
+    static final String CBOR_REPRESENTATION = "-cbor";
+
+    /**
+     * The fields of a ticket, in the order of their bit in the ETag of a selection of fields.
+     */
+    static final List<String> FIELD_BITS = List.of("id", "lines", "userId", "createdDateTime", "updatedDateTime", "statusEnquired");
+
+    private static final Pattern ETAG_SUFFIX = Pattern.compile("(-f[0-9a-f]+)?(" + SMILE_REPRESENTATION + "|" + CBOR_REPRESENTATION + ")?");
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int MAX_BATCH_SIZE = 10000;
+
+    static final int DEFAULT_LINE_LIMIT = 100;
+
+    static final int MAX_LINE_LIMIT = 10000;
+
+    static final int MAX_STATS_RANGE_DAYS = 366;
+
+    static final Duration STATUS_CHECKED_MAX_AGE = Duration.ofDays(365);
+
+    Logger logger = LoggerFactory.getLogger(LotteryController.class);
+
+    @Autowired
+    LotteryService lotteryService;
+
+    @Autowired
+    LineValidator lineValidator;
+
+    @Autowired
+    TicketRequestReader ticketRequestReader;
+
+    @Autowired
+    TicketStatsService ticketStatsService;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @ApiOperation(value = "List tickets, one page at a time", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved list", responseHeaders = {
+                    @ResponseHeader(name = NEXT_PAGE_TOKEN_HEADER, description = "Token of the next page, absent on the last page", response = String.class)
+            }),
+            @ApiResponse(code = 204, message = "No data returned"),
+            @ApiResponse(code = 400, message = "page token, page size or fields invalid")
+    }
+    )
+    @GetMapping("/ticket")
+    public ResponseEntity<List<LotteryTicketResponse>> getAllTickets(@RequestParam(value = "pageToken", required = false) String pageToken,
+                                                                     @RequestParam(value = "pageSize", defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize,
+                                                                     @RequestParam(value = "fields", required = false) String fields) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            logger.error("Page size should be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Set<String> selectedFields;
+        try {
+            selectedFields = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        LotteryTicketPage page;
+        try {
+            page = lotteryService.getAllTickets(pageToken, pageSize, selectedFields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid page token: " + pageToken);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return pageResponse(page);
+    }
+
+    @ApiOperation(value = "List the tickets of a user newest first, one page at a time", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved list", responseHeaders = {
+                    @ResponseHeader(name = NEXT_PAGE_TOKEN_HEADER, description = "Token of the next page, absent on the last page", response = String.class)
+            }),
+            @ApiResponse(code = 204, message = "No data returned"),
+            @ApiResponse(code = 400, message = "page token, page size or fields invalid")
+    }
+    )
+    @GetMapping("/users/{userId}/tickets")
+    public ResponseEntity<List<LotteryTicketResponse>> getTicketsByUserId(@PathVariable("userId") String userId,
+                                                                          @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                                          @RequestParam(value = "pageSize", defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize,
+                                                                          @RequestParam(value = "fields", required = false) String fields) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            logger.error("Page size should be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Set<String> selectedFields;
+        try {
+            selectedFields = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        LotteryTicketPage page;
+        try {
+            page = lotteryService.getTicketsByUserId(userId, pageToken, pageSize, selectedFields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid page token: " + pageToken);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return pageResponse(page);
+    }
+
+    @ApiOperation(value = "Stream all tickets as newline delimited JSON", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully streamed list"),
+            @ApiResponse(code = 400, message = "fields invalid")
+    }
+    )
+    @GetMapping(value = "/ticket/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTickets(@RequestParam(value = "fields", required = false) String fields) {
+        Set<String> selectedFields;
+        try {
+            selectedFields = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ObjectWriter writer = mapper.writerFor(LotteryTicketResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<LotteryTicketResponse> tickets = lotteryService.streamAllTickets(selectedFields)) {
+                JsonGenerator generator = mapper.getFactory().createGenerator(outputStream);
+                // Each ticket is terminated by a new line instead of the default root value separator
+                generator.setRootValueSeparator(null);
+                Iterator<LotteryTicketResponse> iterator = tickets.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    @ApiOperation(value = "Get lottery ticket by Id", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved ticket", responseHeaders = {
+                    @ResponseHeader(name = HttpHeaders.ETAG, description = "Version of the ticket", response = String.class),
+                    @ResponseHeader(name = HttpHeaders.CACHE_CONTROL, description = "no-cache, or a long max-age once the status of the ticket has been checked", response = String.class)
+            }),
+            @ApiResponse(code = 304, message = "Ticket not modified since the version held by the client"),
+            @ApiResponse(code = 400, message = "fields invalid"),
+            @ApiResponse(code = 404, message = "Ticket not found")
+    }
+    )
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = HttpHeaders.IF_NONE_MATCH, value = "ETag of the ticket held by the client", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = HttpHeaders.IF_MODIFIED_SINCE, value = "Last-Modified of the ticket held by the client", dataType = "string", paramType = "header")
+    })
+    @GetMapping("/ticket/{id}")
+    public ResponseEntity<LotteryTicketResponse> getTicketById(@PathVariable("id") String id,
+                                                               @RequestParam(value = "fields", required = false) String fields,
+                                                               @ApiIgnore WebRequest webRequest) {
+        Set<String> selectedFields;
+        try {
+            selectedFields = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        String representation = representationOf(webRequest.getHeader(HttpHeaders.ACCEPT));
+        try {
+            if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+                // Answer the client from the version of the ticket, without loading its lines
+                LotteryTicketVersion version = lotteryService.getTicketVersionById(id);
+                String eTag = eTagOf(version.getVersion(), fieldSelectionOf(selectedFields) + representation);
+                long lastModified = version.getUpdatedDateTime() == null ? -1 : version.getUpdatedDateTime().getTime();
+                if (webRequest.checkNotModified(eTag, lastModified)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControlOf(version.isStatusEnquired())).build();
+                }
+            }
+            LotteryTicketResponse ticketById = lotteryService.getTicketById(id, selectedFields);
+            ResponseEntity.BodyBuilder response = versioned(ResponseEntity.ok(), ticketById, fieldSelectionOf(selectedFields) + representation)
+                    .cacheControl(cacheControlOf(ticketById.isStatusEnquired()));
+            if (ticketById.getUpdatedDateTime() != null) {
+                response.lastModified(ticketById.getUpdatedDateTime().getTime());
+            }
+            return response.body(ticketById);
+        } catch (NoSuchElementException e) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @ApiOperation(value = "Get the summary of the results of a lottery ticket by Id", response = LotteryTicketSummaryResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved summary"),
+            @ApiResponse(code = 403, message = "Results not available before status check"),
+            @ApiResponse(code = 404, message = "Ticket not found in DB")
+    }
+    )
+    @GetMapping("/ticket/{id}/summary")
+    public ResponseEntity<LotteryTicketSummaryResponse> getTicketSummary(@PathVariable("id") String id) {
+        try {
+            LotteryTicketSummaryResponse summary = lotteryService.getTicketSummary(id);
+            return new ResponseEntity<>(summary, HttpStatus.OK);
+        } catch (NoSuchElementException e) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (AccessDeniedException e) {
+            logger.error("Results not available before status check for id: " + id);
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @ApiOperation(value = "Get the lines of a lottery ticket by Id ordered by result, one window at a time", response = LotteryTicketLinesResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved lines"),
+            @ApiResponse(code = 400, message = "skip or limit invalid"),
+            @ApiResponse(code = 403, message = "Results not available before status check"),
+            @ApiResponse(code = 404, message = "Ticket not found in DB")
+    }
+    )
+    @GetMapping("/ticket/{id}/lines")
+    public ResponseEntity<LotteryTicketLinesResponse> getTicketLines(@PathVariable("id") String id,
+                                                                     @RequestParam(value = "sortDir", required = false) String sortDir,
+                                                                     @RequestParam(value = "skip", defaultValue = "0") int skip,
+                                                                     @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LINE_LIMIT) int limit) {
+        if (skip < 0 || limit < 1 || limit > MAX_LINE_LIMIT) {
+            logger.error("Skip should be positive and limit between 1 and " + MAX_LINE_LIMIT + ": " + skip + ", " + limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            LotteryTicketLinesResponse lines = lotteryService.getTicketLines(id, sortDir, skip, limit);
+            return new ResponseEntity<>(lines, HttpStatus.OK);
+        } catch (NoSuchElementException e) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (AccessDeniedException e) {
+            logger.error("Results not available before status check for id: " + id);
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @ApiOperation(value = "Save/Create a lottery ticket", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Successfully created ticket, or the ticket created by the first request with the same Idempotency-Key", responseHeaders = {
+                    @ResponseHeader(name = HttpHeaders.ETAG, description = "Version of the ticket", response = String.class)
+            }),
+            @ApiResponse(code = 202, message = "Ticket queued to be written, when write-behind acknowledges on enqueue"),
+            @ApiResponse(code = 400, message = "request body or Idempotency-Key invalid", response = LotteryTicketError.class),
+            @ApiResponse(code = 409, message = "Idempotency-Key used for a different request or by a request in progress", response = LotteryTicketError.class),
+            @ApiResponse(code = 429, message = "Write-behind queue full, retry later")
+    }
+    )
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "lotteryTicketFromRequest", value = "eg: {\"userId\": \"user1\", \"lines\": [\"000\", \"012\"]}", required = true, dataType = "LotteryTicketRequest", paramType = "body")
+    })
+    @PostMapping(value = "/ticket", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createTicket(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                          @ApiIgnore @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @ApiIgnore InputStream body) throws IOException {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            logger.error("Idempotency-Key should have between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            return new ResponseEntity<>(new LotteryTicketError("Idempotency-Key should have between 1 and "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " characters", null), HttpStatus.BAD_REQUEST);
+        }
+        ParsedTicketRequest parsedRequest;
+        try {
+            parsedRequest = ticketRequestReader.read(body);
+        } catch (InvalidTicketRequestException e) {
+            logger.error(e.getMessage());
+            return requestInvalidResponse(e);
+        }
+        LotteryTicketRequest lotteryTicketFromRequest = parsedRequest.toRequest();
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Creation of lottery ticket not allowed for user: " + lotteryTicketFromRequest.getUserId());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            LotteryTicketResponse createdTicket = lotteryService.saveTicket(lotteryTicketFromRequest, parsedRequest.getLines(), idempotencyKey);
+            return versioned(ResponseEntity.status(lotteryService.isCreationAcknowledgedOnEnqueue() ? HttpStatus.ACCEPTED : HttpStatus.CREATED), createdTicket, representationOf(accept))
+                    .body(createdTicket);
+        } catch (IdempotencyKeyConflictException e) {
+            logger.error(e.getMessage() + ": " + idempotencyKey);
+            return new ResponseEntity<>(new LotteryTicketError(e.getMessage(), null), HttpStatus.CONFLICT);
+        }
+
+    }
+
+    @ApiOperation(value = "Save/Create lottery tickets in a batch", response = LotteryTicketBatchResult.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully processed batch, see the result of each ticket"),
+            @ApiResponse(code = 400, message = "request body invalid")
+    }
+    )
+    @PostMapping("/tickets/batch")
+    public ResponseEntity<List<LotteryTicketBatchResult>> createTickets(@RequestBody List<LotteryTicketRequest> lotteryTicketsFromRequest) {
+        if (CollectionUtils.isEmpty(lotteryTicketsFromRequest) || lotteryTicketsFromRequest.size() > MAX_BATCH_SIZE) {
+            logger.error("Batch should contain between 1 and " + MAX_BATCH_SIZE + " tickets");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        LotteryTicketBatchResult[] results = new LotteryTicketBatchResult[lotteryTicketsFromRequest.size()];
+        List<LotteryTicketRequest> validRequests = new ArrayList<>(results.length);
+        List<PackedLines> validLines = new ArrayList<>(results.length);
+        List<Integer> validIndexes = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            LotteryTicketRequest request = lotteryTicketsFromRequest.get(i);
+            if (request == null || !isUserIdValid(request)) {
+                results[i] = LotteryTicketBatchResult.failed(i, "userId is required");
+                continue;
+            }
+            LineValidationResult validation = lineValidator.validate(request.getLines());
+            if (!validation.isValid()) {
+                results[i] = LotteryTicketBatchResult.failed(i, validation.getMessage());
+            } else {
+                validRequests.add(request);
+                validLines.add(validation.getLines());
+                validIndexes.add(i);
+            }
+        }
+        if (!validRequests.isEmpty()) {
+            for (LotteryTicketBatchResult result : lotteryService.saveTickets(validRequests, validLines)) {
+                int index = validIndexes.get(result.getIndex());
+                result.setIndex(index);
+                results[index] = result;
+            }
+        }
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Update a lottery ticket by Id", response = LotteryTicketResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully updated ticket", responseHeaders = {
+                    @ResponseHeader(name = HttpHeaders.ETAG, description = "Version of the updated ticket", response = String.class)
+            }),
+            @ApiResponse(code = 400, message = "request body invalid", response = LotteryTicketError.class),
+            @ApiResponse(code = 403, message = "Access Forbidden"),
+            @ApiResponse(code = 404, message = "Ticket not found in DB"),
+            @ApiResponse(code = 409, message = "Ticket no longer at the version of the If-Match ETag, or updated concurrently")
+    }
+    )
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = HttpHeaders.IF_MATCH, value = "ETag of the ticket the update is based on", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = "lotteryTicketFromRequest", value = "eg: {\"userId\": \"user1\", \"lines\": [\"000\", \"012\"]}", required = true, dataType = "LotteryTicketRequest", paramType = "body")
+    })
+    @PutMapping(value = "/ticket/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateTicket(@PathVariable("id") String id,
+                                          @ApiIgnore @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @ApiIgnore @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @ApiIgnore InputStream body) throws IOException {
+        // Without If-Match the update is based on the version the service reads
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = versionOf(ifMatch);
+            if (version == null) {
+                logger.error("If-Match is not an ETag of lottery ticket " + id + ": " + ifMatch);
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+            }
+        }
+        ParsedTicketRequest parsedRequest;
+        try {
+            parsedRequest = ticketRequestReader.read(body);
+        } catch (InvalidTicketRequestException e) {
+            logger.error(e.getMessage());
+            return requestInvalidResponse(e);
+        }
+        LotteryTicketRequest lotteryTicketFromRequest = parsedRequest.toRequest();
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Updation of lottery ticket not allowed for user: " + id);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            LotteryTicketResponse response = lotteryService.updateTicket(id, version, lotteryTicketFromRequest, parsedRequest.getLines());
+            return versioned(ResponseEntity.ok(), response, representationOf(accept)).body(response);
+        } catch (NoSuchElementException e) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (AccessDeniedException e) {
+            logger.error("Updates not possible after status check");
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Lottery ticket updated concurrently for id: " + id + (version == null ? "" : ", expected version " + version));
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @ApiOperation(value = "Update status of lottery ticket by Id", response = LotteryTicket.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully updated ticket"),
+            @ApiResponse(code = 400, message = "request body invalid"),
+            @ApiResponse(code = 403, message = "Access Forbidden"),
+            @ApiResponse(code = 404, message = "Ticket not found in DB")
+    }
+    )
+    @PutMapping("/status/{id}")
+    public ResponseEntity<LotteryTicket> updateTicketStatus(@PathVariable("id") String id,
+                                                            @RequestParam(value = "sortDir", required = false) String sortDir,
+                                                            @RequestBody LotteryTicketRequest lotteryTicketFromRequest) {
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Updation of lottery ticket not allowed for user: " + id);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            LotteryTicket updatedTicket = lotteryService.updateTicketStatus(id, sortDir, lotteryTicketFromRequest);
+            return new ResponseEntity<>(updatedTicket, HttpStatus.OK);
+        } catch (NoSuchElementException e) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (AccessDeniedException e) {
+            logger.error("Updates not possible after status check");
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @ApiOperation(value = "Get the statistics of the tickets per hour or per day", response = TicketStatsResponse.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved statistics, periods without activity are omitted"),
+            @ApiResponse(code = 400, message = "range or granularity invalid")
+    }
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<List<TicketStatsResponse>> getStats(@RequestParam(value = "from", required = false) Instant from,
+                                                              @RequestParam(value = "to", required = false) Instant to,
+                                                              @RequestParam(value = "granularity", defaultValue = "hour") String granularity) {
+        ChronoUnit unit;
+        if ("hour".equalsIgnoreCase(granularity)) {
+            unit = ChronoUnit.HOURS;
+        } else if ("day".equalsIgnoreCase(granularity)) {
+            unit = ChronoUnit.DAYS;
+        } else {
+            logger.error("Granularity should be hour or day: " + granularity);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (to == null) {
+            to = Instant.now();
+        }
+        if (from == null) {
+            from = to.minus(1, ChronoUnit.DAYS);
+        }
+        if (!from.isBefore(to) || from.plus(MAX_STATS_RANGE_DAYS, ChronoUnit.DAYS).isBefore(to)) {
+            logger.error("Range should be at most " + MAX_STATS_RANGE_DAYS + " days with from before to: " + from + ", " + to);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(ticketStatsService.getStats(Date.from(from), Date.from(to), unit), HttpStatus.OK);
+    }
+
+    /**
+     * Answer 503 when the DB calls of a request are rejected by the repository concurrency limiter.
+     * The request was not executed and can be retried.
+     *
+     * @param e the exception
+     * @return the response entity
+     */
+    @ExceptionHandler(RepositoryConcurrencyLimitException.class)
+    public ResponseEntity<Void> handleRepositoryConcurrencyLimit(RepositoryConcurrencyLimitException e) {
+        logger.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    /**
+     * Answer 429 when a created ticket can not be queued because the write-behind queue is full.
+     * The ticket was not saved and the request can be retried.
+     *
+     * @param e the exception
+     * @return the response entity
+     */
+    @ExceptionHandler(TicketQueueFullException.class)
+    public ResponseEntity<Void> handleTicketQueueFull(TicketQueueFullException e) {
+        logger.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    /**
+     * Parse the fields selected with the fields parameter, eg: "userId,createdDateTime".
+     *
+     * @param fields the comma separated fields, null for all fields
+     * @return the selected fields, null for all fields
+     * @throws IllegalArgumentException if a field is not a field of a ticket
+     */
+    static Set<String> parseFields(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> selectedFields = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!LotteryService.TICKET_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ", fields should be among " + LotteryService.TICKET_FIELDS);
+            }
+            selectedFields.add(name);
+        }
+        return selectedFields;
+    }
+
+    /**
+     * Suffix of the ETags of the representation negotiated for an Accept header: none for JSON, the default,
+     * "-smile" for Smile and "-cbor" for CBOR. Each representation of a version of a ticket has its own ETag,
+     * so a cache never answers a conditional request with a 304 for another representation.
+     *
+     * @param accept the Accept header, null if the request has none
+     * @return the suffix of the ETags
+     */
+    static String representationOf(String accept) {
+        if (accept == null) {
+            return JSON_REPRESENTATION;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON_REPRESENTATION;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return JSON_REPRESENTATION;
+            }
+            if (mediaType.includes(APPLICATION_SMILE)) {
+                return SMILE_REPRESENTATION;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                return CBOR_REPRESENTATION;
+            }
+        }
+        return JSON_REPRESENTATION;
+    }
+
+    /**
+     * ETag of a representation of a version of a ticket. Every update of a ticket increments its version.
+     * The ETag is weak, as the representation is the same whether or not it is gzip compressed,
+     * and Tomcat does not compress responses with a strong ETag.
+     *
+     * @param version        the version of the ticket
+     * @param representation the suffix of the representation, see {@link #representationOf(String)}
+     * @return the ETag
+     */
+    static String eTagOf(long version, String representation) {
+        return "W/\"" + version + representation + "\"";
+    }
+
+    /**
+     * Suffix of the ETag of a selection of fields: the bits of the selected fields in {@link #FIELD_BITS}, eg: "-f6"
+     * for lines and userId, so that the selections of a version of a ticket have different ETags.
+     *
+     * @param selectedFields the selected fields, null for all fields
+     * @return the suffix, empty for all fields
+     */
+    static String fieldSelectionOf(Set<String> selectedFields) {
+        if (selectedFields == null) {
+            return "";
+        }
+        int bits = 0;
+        for (int i = 0; i < FIELD_BITS.size(); i++) {
+            if (selectedFields.contains(FIELD_BITS.get(i))) {
+                bits |= 1 << i;
+            }
+        }
+        return "-f" + Integer.toHexString(bits);
+    }
+
+    /**
+     * Version of a ticket from its ETag, of any representation and selection of fields, sent back by the client in If-Match.
+     * The weak ETags sent by the API are accepted, since the version is all that is compared.
+     *
+     * @param eTag the ETag
+     * @return the version, null if the ETag is not the ETag of a version of a ticket
+     */
+    static Long versionOf(String eTag) {
+        String value = eTag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return null;
+        }
+        String tag = value.substring(1, value.length() - 1);
+        int suffix = tag.indexOf('-');
+        if (suffix >= 0) {
+            if (!ETAG_SUFFIX.matcher(tag.substring(suffix)).matches()) {
+                return null;
+            }
+            tag = tag.substring(0, suffix);
+        }
+        try {
+            long version = Long.parseLong(tag);
+            return version < 0 ? null : version;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Set the ETag of a representation of a ticket on its response, unless the version of the ticket was not read.
+     *
+     * @param response       the response
+     * @param ticket         the ticket
+     * @param representation the suffix of the representation, see {@link #representationOf(String)}
+     * @return the response
+     */
+    static ResponseEntity.BodyBuilder versioned(ResponseEntity.BodyBuilder response, LotteryTicketResponse ticket, String representation) {
+        return ticket.getVersion() == null ? response : response.eTag(eTagOf(ticket.getVersion(), representation));
+    }
+
+    /**
+     * Cache control of a ticket. A status checked ticket never changes again and can be cached for long,
+     * any other ticket must be revalidated with its ETag.
+     *
+     * @param statusEnquired the status enquired of the ticket
+     * @return the cache control
+     */
+    static CacheControl cacheControlOf(boolean statusEnquired) {
+        return statusEnquired ? CacheControl.maxAge(STATUS_CHECKED_MAX_AGE).cachePrivate() : CacheControl.noCache();
+    }
+
+    /**
+     * Prepare the response of a page of tickets. The token of the next page is sent as a header.
+     *
+     * @param page the page of tickets
+     * @return the response
+     */
+    private ResponseEntity<List<LotteryTicketResponse>> pageResponse(LotteryTicketPage page) {
+        if (page.getTickets().isEmpty()) {
+            logger.info("No Lottery tickets");
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextPageToken() != null) {
+            headers.set(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return new ResponseEntity<>(page.getTickets(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Check if the userId is valid in the incoming request
+     *
+     * @param request
+     * @return the validity of userId
+     */
+    private boolean isUserIdValid(LotteryTicketRequest request) {
+        if (!StringUtils.isEmpty(request.getUserId())) {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bad request response reporting the first invalid lottery line.
+     *
+     * @param validation the failed validation of the lines
+     * @return the response
+     */
+    static ResponseEntity<LotteryTicketError> linesInvalidResponse(LineValidationResult validation) {
+        Integer lineIndex = validation.getInvalidIndex() == LineValidationResult.NO_LINES ? null : validation.getInvalidIndex();
+        return new ResponseEntity<>(new LotteryTicketError(validation.getMessage(), lineIndex), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Bad request response for a ticket request rejected while its body was read.
+     *
+     * @param e the reason the request was rejected
+     * @return the response
+     */
+    private ResponseEntity<LotteryTicketError> requestInvalidResponse(InvalidTicketRequestException e) {
+        return new ResponseEntity<>(new LotteryTicketError(e.getMessage(), e.getLineIndex()), HttpStatus.BAD_REQUEST);
+    }
+}
+
+
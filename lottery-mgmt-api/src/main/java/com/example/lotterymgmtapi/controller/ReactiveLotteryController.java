@@ -0,0 +1,197 @@
+package com.example.lotterymgmtapi.controller;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.service.ReactiveLotteryService;
+import com.example.lotterymgmtapi.validation.LineValidationResult;
+import com.example.lotterymgmtapi.validation.LineValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.AccessDeniedException;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.example.lotterymgmtapi.controller.LotteryController.*;
+
+/**
+ * WebFlux version of {@link LotteryController}, used by the reactive execution mode.
+ * The end points have the same paths, parameters and status codes.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/lotteryapi/v1")
+public class ReactiveLotteryController {
+
+    Logger logger = LoggerFactory.getLogger(ReactiveLotteryController.class);
+
+    @Autowired
+    ReactiveLotteryService lotteryService;
+
+    @Autowired
+    LineValidator lineValidator;
+
+    @GetMapping("/ticket")
+    public Mono<ResponseEntity<List<LotteryTicketResponse>>> getAllTickets(@RequestParam(value = "pageToken", required = false) String pageToken,
+                                                                           @RequestParam(value = "pageSize", defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            logger.error("Page size should be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return lotteryService.getAllTickets(pageToken, pageSize)
+                .map(page -> {
+                    if (page.getTickets().isEmpty()) {
+                        logger.info("No Lottery tickets");
+                        return new ResponseEntity<List<LotteryTicketResponse>>(HttpStatus.NO_CONTENT);
+                    }
+                    HttpHeaders headers = new HttpHeaders();
+                    if (page.getNextPageToken() != null) {
+                        headers.set(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+                    }
+                    return new ResponseEntity<>(page.getTickets(), headers, HttpStatus.OK);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    logger.error("Invalid page token: " + pageToken);
+                    return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+                });
+    }
+
+    @GetMapping("/ticket/{id}")
+    public Mono<ResponseEntity<LotteryTicketResponse>> getTicketById(@PathVariable("id") String id,
+                                                                     @RequestParam(value = "fields", required = false) String fields,
+                                                                     ServerWebExchange exchange) {
+        Set<String> selectedFields;
+        try {
+            selectedFields = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        String representation = fieldSelectionOf(selectedFields) + representationOf(requestHeaders.getFirst(HttpHeaders.ACCEPT));
+        Mono<ResponseEntity<LotteryTicketResponse>> ticketResponse = Mono.defer(() -> lotteryService.getTicketById(id, selectedFields))
+                .map(ticketById -> {
+                    ResponseEntity.BodyBuilder response = versioned(ResponseEntity.ok(), ticketById, representation)
+                            .cacheControl(cacheControlOf(ticketById.isStatusEnquired()));
+                    if (ticketById.getUpdatedDateTime() != null) {
+                        response.lastModified(ticketById.getUpdatedDateTime().getTime());
+                    }
+                    return response.body(ticketById);
+                });
+        if (!requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) && !requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+            return ticketResponse.onErrorResume(e -> errorResponse(id, e));
+        }
+        // Answer the client from the version of the ticket, without loading its lines
+        return lotteryService.getTicketVersionById(id)
+                .flatMap(version -> {
+                    Instant lastModified = version.getUpdatedDateTime() == null ? Instant.MIN : version.getUpdatedDateTime().toInstant();
+                    if (exchange.checkNotModified(eTagOf(version.getVersion(), representation), lastModified)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .cacheControl(cacheControlOf(version.isStatusEnquired())).<LotteryTicketResponse>build());
+                    }
+                    return ticketResponse;
+                })
+                .onErrorResume(e -> errorResponse(id, e));
+    }
+
+    @PostMapping("/ticket")
+    public Mono<ResponseEntity<?>> createTicket(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                @RequestBody LotteryTicketRequest lotteryTicketFromRequest) {
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Creation of lottery ticket not allowed for user: " + lotteryTicketFromRequest.getUserId());
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        LineValidationResult validation = lineValidator.validate(lotteryTicketFromRequest.getLines());
+        if (!validation.isValid()) {
+            logger.error(validation.getMessage());
+            return Mono.just(linesInvalidResponse(validation));
+        }
+        return lotteryService.saveTicket(lotteryTicketFromRequest, validation.getLines())
+                .<ResponseEntity<?>>map(createdTicket -> versioned(ResponseEntity.status(HttpStatus.CREATED), createdTicket, representationOf(accept)).body(createdTicket));
+    }
+
+    @PutMapping("/ticket/{id}")
+    public Mono<ResponseEntity<?>> updateTicket(@PathVariable("id") String id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                @RequestBody LotteryTicketRequest lotteryTicketFromRequest) {
+        // Without If-Match the update is based on the version the service reads
+        Long version = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            version = versionOf(ifMatch);
+            if (version == null) {
+                logger.error("If-Match is not an ETag of lottery ticket " + id + ": " + ifMatch);
+                return Mono.just(new ResponseEntity<>(HttpStatus.CONFLICT));
+            }
+        }
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Updation of lottery ticket not allowed for user: " + id);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        LineValidationResult validation = lineValidator.validate(lotteryTicketFromRequest.getLines());
+        if (!validation.isValid()) {
+            logger.error(validation.getMessage());
+            return Mono.just(linesInvalidResponse(validation));
+        }
+        return lotteryService.updateTicket(id, version, lotteryTicketFromRequest, validation.getLines())
+                .<ResponseEntity<?>>map(response -> versioned(ResponseEntity.ok(), response, representationOf(accept)).body(response))
+                .onErrorResume(e -> errorResponse(id, e));
+    }
+
+    @PutMapping("/status/{id}")
+    public Mono<ResponseEntity<LotteryTicket>> updateTicketStatus(@PathVariable("id") String id,
+                                                                  @RequestParam(value = "sortDir", required = false) String sortDir,
+                                                                  @RequestBody LotteryTicketRequest lotteryTicketFromRequest) {
+        if (!isUserIdValid(lotteryTicketFromRequest)) {
+            logger.error("Updation of lottery ticket not allowed for user: " + id);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return lotteryService.updateTicketStatus(id, sortDir, lotteryTicketFromRequest)
+                .map(updatedTicket -> new ResponseEntity<>(updatedTicket, HttpStatus.OK))
+                .onErrorResume(e -> errorResponse(id, e));
+    }
+
+    /**
+     * Map the errors signalled by the service to the same status codes as {@link LotteryController}.
+     *
+     * @param id the id of the ticket
+     * @param e  the error
+     * @return the error response, or the error itself if it is not expected
+     */
+    private <T> Mono<ResponseEntity<T>> errorResponse(String id, Throwable e) {
+        if (e instanceof NoSuchElementException) {
+            logger.error("Lottery ticket not found in DB for id: " + id);
+            return Mono.just(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } else if (e instanceof AccessDeniedException) {
+            logger.error("Updates not possible after status check");
+            return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+        } else if (e instanceof OptimisticLockingFailureException) {
+            logger.error("Lottery ticket updated since the version of the request for id: " + id);
+            return Mono.just(new ResponseEntity<>(HttpStatus.CONFLICT));
+        }
+        return Mono.error(e);
+    }
+
+    /**
+     * Check if the userId is valid in the incoming request
+     *
+     * @param request
+     * @return the validity of userId
+     */
+    private boolean isUserIdValid(LotteryTicketRequest request) {
+        return !StringUtils.isEmpty(request.getUserId());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.lotterymgmtapi.converter;
+
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converters between {@link PackedLines} and the MongoDB representation of the lines on a ticket.
+ * <p>
+ * Lines are written as a BSON binary field holding one code byte per line. Documents written
+ * before the compact encoding hold an array of {numbers, result} sub-documents, these are still
+ * read correctly and are stored in the compact form the next time the ticket is written.
+ */
+public final class PackedLinesConverters {
+
+    private PackedLinesConverters() {
+    }
+
+    /**
+     * Gets all the converters.
+     *
+     * @return the converters
+     */
+    public static List<Converter<?, ?>> getConverters() {
+        return List.of(
+                PackedLinesToBinaryConverter.INSTANCE,
+                BinaryToPackedLinesConverter.INSTANCE,
+                BytesToPackedLinesConverter.INSTANCE,
+                LegacyLinesToPackedLinesConverter.INSTANCE
+        );
+    }
+
+    /**
+     * Writes packed lines as a BSON binary.
+     */
+    @WritingConverter
+    enum PackedLinesToBinaryConverter implements Converter<PackedLines, Binary> {
+        INSTANCE;
+
+        @Override
+        public Binary convert(PackedLines source) {
+            return new Binary(source.toCodes());
+        }
+    }
+
+    /**
+     * Reads packed lines from a BSON binary.
+     */
+    @ReadingConverter
+    enum BinaryToPackedLinesConverter implements Converter<Binary, PackedLines> {
+        INSTANCE;
+
+        @Override
+        public PackedLines convert(Binary source) {
+            return PackedLines.fromCodes(source.getData());
+        }
+    }
+
+    /**
+     * Reads packed lines from a BSON binary decoded as a byte array.
+     */
+    @ReadingConverter
+    enum BytesToPackedLinesConverter implements Converter<byte[], PackedLines> {
+        INSTANCE;
+
+        @Override
+        public PackedLines convert(byte[] source) {
+            return PackedLines.fromCodes(source);
+        }
+    }
+
+    /**
+     * Reads packed lines from the legacy array of {numbers, result} sub-documents.
+     * The stored result is ignored, it is derived from the numbers.
+     */
+    @ReadingConverter
+    enum LegacyLinesToPackedLinesConverter implements Converter<List<?>, PackedLines> {
+        INSTANCE;
+
+        @Override
+        public PackedLines convert(List<?> source) {
+            List<String> numbers = new ArrayList<>(source.size());
+            for (Object line : source) {
+                numbers.add(((Document) line).getString("numbers"));
+            }
+            return PackedLines.fromNumbers(numbers);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.lotterymgmtapi.engine;
+
+import com.example.lotterymgmtapi.model.PackedLines;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeSet;
+
+/**
+ * Orders the lines of a ticket by result.
+ * <p>
+ * A line only has one of a few results(0, 1, 5 or 10), so lines are ordered with a counting sort
+ * over one bucket per result instead of a comparison sort: O(n), no boxing and no comparator.
+ * The ordering is stable, lines with the same result keep their order on the ticket in both
+ * directions.
+ */
+public final class LineSorter {
+
+    /**
+     * The distinct results of a line, in ascending order.
+     */
+    private static final int[] RESULTS;
+
+    /**
+     * Bucket of each line code: the index of the result of the line in {@link #RESULTS}.
+     */
+    private static final int[] BUCKETS = new int[ResultEngine.LINE_COUNT];
+
+    static {
+        TreeSet<Integer> results = new TreeSet<>();
+        for (int code = 0; code < ResultEngine.LINE_COUNT; code++) {
+            results.add(ResultEngine.resultOf(code));
+        }
+        RESULTS = results.stream().mapToInt(Integer::intValue).toArray();
+        for (int code = 0; code < ResultEngine.LINE_COUNT; code++) {
+            BUCKETS[code] = results.headSet(ResultEngine.resultOf(code)).size();
+        }
+    }
+
+    private LineSorter() {
+    }
+
+    /**
+     * Sort lines by result.
+     *
+     * @param lines     the lines
+     * @param ascending true for ascending results, false for descending results
+     * @return new packed lines, sorted
+     */
+    public static PackedLines sort(PackedLines lines, boolean ascending) {
+        int size = lines.size();
+        int[] offsets = bucketOffsets(lines, ascending);
+        byte[] sorted = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int code = lines.codeAt(i);
+            sorted[offsets[BUCKETS[code]]++] = (byte) code;
+        }
+        return PackedLines.fromCodes(sorted);
+    }
+
+    /**
+     * Iterate over the indexes of lines in the order of their results, without copying the lines.
+     * Each bucket is scanned lazily when the iteration reaches it, so reading the first lines of
+     * the ordering only scans the lines up to the last line of the bucket being read.
+     *
+     * @param lines     the lines, not modified during the iteration
+     * @param ascending true for ascending results, false for descending results
+     * @return the indexes of the lines, eg: for ["000", "002", "012"] and descending 1, 0, 2
+     */
+    public static PrimitiveIterator.OfInt order(PackedLines lines, boolean ascending) {
+        return new OrderIterator(lines, ascending);
+    }
+
+    /**
+     * Gets the first position of each bucket in the sorted lines.
+     */
+    private static int[] bucketOffsets(PackedLines lines, boolean ascending) {
+        int[] counts = new int[RESULTS.length];
+        int size = lines.size();
+        for (int i = 0; i < size; i++) {
+            counts[BUCKETS[lines.codeAt(i)]]++;
+        }
+        int[] offsets = new int[RESULTS.length];
+        int offset = 0;
+        for (int n = 0; n < RESULTS.length; n++) {
+            int bucket = ascending ? n : RESULTS.length - 1 - n;
+            offsets[bucket] = offset;
+            offset += counts[bucket];
+        }
+        return offsets;
+    }
+
+    private static final class OrderIterator implements PrimitiveIterator.OfInt {
+
+        private final PackedLines lines;
+
+        private final boolean ascending;
+
+        /**
+         * Number of buckets fully iterated.
+         */
+        private int bucketsDone;
+
+        /**
+         * Index of the next line to scan in the current bucket.
+         */
+        private int index;
+
+        /**
+         * Index of the next line of the ordering, -1 if not found yet.
+         */
+        private int next = -1;
+
+        private OrderIterator(PackedLines lines, boolean ascending) {
+            this.lines = lines;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next >= 0) {
+                return true;
+            }
+            int size = lines.size();
+            while (bucketsDone < RESULTS.length) {
+                int bucket = ascending ? bucketsDone : RESULTS.length - 1 - bucketsDone;
+                while (index < size) {
+                    int i = index++;
+                    if (BUCKETS[lines.codeAt(i)] == bucket) {
+                        next = i;
+                        return true;
+                    }
+                }
+                bucketsDone++;
+                index = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = next;
+            next = -1;
+            return i;
+        }
+    }
+}
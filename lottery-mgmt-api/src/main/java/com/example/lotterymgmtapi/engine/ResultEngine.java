@@ -0,0 +1,131 @@
+package com.example.lotterymgmtapi.engine;
+
+/**
+ * The Lottery result engine.
+ * <p>
+ * A line is made of 3 numbers in range 0 - 2, so only 27 distinct lines exist (000..222).
+ * Each line is decoded straight from its characters into a base-3 code (0..26) and its
+ * result is looked up in a table precomputed once from the lottery rules.
+ */
+public final class ResultEngine {
+
+    /**
+     * Number of numbers on a line.
+     */
+    public static final int LINE_LENGTH = 3;
+
+    /**
+     * Number of distinct lines (3 ^ LINE_LENGTH).
+     */
+    public static final int LINE_COUNT = 27;
+
+    /**
+     * Code returned by {@link #encode(CharSequence)} for an invalid line.
+     */
+    public static final int INVALID = -1;
+
+    private static final int[] RESULTS = new int[LINE_COUNT];
+
+    private static final String[] NUMBERS = new String[LINE_COUNT];
+
+    static {
+        for (int code = 0; code < LINE_COUNT; code++) {
+            RESULTS[code] = applyRules(code / 9, (code / 3) % 3, code % 3);
+            NUMBERS[code] = "" + (code / 9) + ((code / 3) % 3) + (code % 3);
+        }
+    }
+
+    private ResultEngine() {
+    }
+
+    /**
+     * Encode a line into its base-3 code.
+     *
+     * @param line the line, eg: "012"
+     * @return the code in range 0 - 26, or {@link #INVALID} if the line is not 3 numbers in range 0 - 2
+     */
+    public static int encode(CharSequence line) {
+        if (line == null || line.length() != LINE_LENGTH) {
+            return INVALID;
+        }
+        return encode(line.charAt(0), line.charAt(1), line.charAt(2));
+    }
+
+    /**
+     * Encode a line held in a character buffer, such as the text buffer of a JSON parser, into its base-3 code.
+     *
+     * @param chars  the buffer
+     * @param offset the offset of the line in the buffer
+     * @param length the length of the line
+     * @return the code in range 0 - 26, or {@link #INVALID} if the line is not 3 numbers in range 0 - 2
+     */
+    public static int encode(char[] chars, int offset, int length) {
+        if (length != LINE_LENGTH) {
+            return INVALID;
+        }
+        return encode(chars[offset], chars[offset + 1], chars[offset + 2]);
+    }
+
+    private static int encode(char c1, char c2, char c3) {
+        int num1 = c1 - '0';
+        int num2 = c2 - '0';
+        int num3 = c3 - '0';
+        if ((num1 | num2 | num3) < 0 || num1 > 2 || num2 > 2 || num3 > 2) {
+            return INVALID;
+        }
+        return num1 * 9 + num2 * 3 + num3;
+    }
+
+    /**
+     * Gets the result of an encoded line.
+     *
+     * @param code the code in range 0 - 26
+     * @return the result
+     */
+    public static int resultOf(int code) {
+        return RESULTS[code];
+    }
+
+    /**
+     * Gets the numbers of an encoded line. The same String instance is returned for a given code.
+     *
+     * @param code the code in range 0 - 26
+     * @return the numbers, eg: "012"
+     */
+    public static String numbersOf(int code) {
+        return NUMBERS[code];
+    }
+
+    /**
+     * Compute the result of a line.
+     *
+     * @param line the line, eg: "012"
+     * @return the result
+     * @throws IllegalArgumentException if the line is not 3 numbers in range 0 - 2
+     */
+    public static int computeResult(CharSequence line) {
+        int code = encode(line);
+        if (code == INVALID) {
+            throw new IllegalArgumentException("Invalid lottery line: " + line);
+        }
+        return RESULTS[code];
+    }
+
+    /**
+     * Result of a line based on the rules below:
+     * You have a series of lines on a ticket with 3 numbers, each of which has a value of 0, 1, or
+     * 2. For each ticket if the sum of the values on a line is 2, the result for that line is 10.
+     * Otherwise if they are all the same, the result is 5. Otherwise so long as both 2nd and 3rd
+     * numbers are different from the 1st, the result is 1. Otherwise the result is 0.
+     */
+    private static int applyRules(int num1, int num2, int num3) {
+        if (num1 + num2 + num3 == 2) {
+            return 10;
+        } else if ((num1 == num2) && (num2 == num3)) {
+            return 5;
+        } else if ((num1 != num2) && (num1 != num3)) {
+            return 1;
+        }
+        return 0;
+    }
+}
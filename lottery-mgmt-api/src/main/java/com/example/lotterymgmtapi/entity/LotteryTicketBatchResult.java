@@ -0,0 +1,107 @@
+package com.example.lotterymgmtapi.entity;
+
+/**
+ * The result of one ticket of a batch creation request.
+ */
+public class LotteryTicketBatchResult {
+    private int index;
+
+    private String id;
+
+    private String error;
+
+    /**
+     * Instantiates a new Lottery ticket batch result.
+     */
+    public LotteryTicketBatchResult() {
+    }
+
+    /**
+     * Instantiates a new Lottery ticket batch result.
+     *
+     * @param index the index of the ticket in the batch request
+     * @param id    the id of the created ticket, null if the ticket was not created
+     * @param error the reason the ticket was not created, null if the ticket was created
+     */
+    public LotteryTicketBatchResult(int index, String id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * Result of a created ticket.
+     *
+     * @param index the index of the ticket in the batch request
+     * @param id    the id of the created ticket
+     * @return the lottery ticket batch result
+     */
+    public static LotteryTicketBatchResult created(int index, String id) {
+        return new LotteryTicketBatchResult(index, id, null);
+    }
+
+    /**
+     * Result of a ticket that was not created.
+     *
+     * @param index the index of the ticket in the batch request
+     * @param error the reason the ticket was not created
+     * @return the lottery ticket batch result
+     */
+    public static LotteryTicketBatchResult failed(int index, String error) {
+        return new LotteryTicketBatchResult(index, null, error);
+    }
+
+    /**
+     * Gets index.
+     *
+     * @return the index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets index.
+     *
+     * @param index the index
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the id
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets error.
+     *
+     * @return the error
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Sets error.
+     *
+     * @param error the error
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.lotterymgmtapi.entity;
+
+/**
+ * The body of an invalid lottery ticket request.
+ */
+public class LotteryTicketError {
+    private String message;
+
+    private Integer lineIndex;
+
+    /**
+     * Instantiates a new Lottery ticket error.
+     */
+    public LotteryTicketError() {
+    }
+
+    /**
+     * Instantiates a new Lottery ticket error.
+     *
+     * @param message   the reason the request is invalid
+     * @param lineIndex the index of the first invalid line, null if the error is not about a line
+     */
+    public LotteryTicketError(String message, Integer lineIndex) {
+        this.message = message;
+        this.lineIndex = lineIndex;
+    }
+
+    /**
+     * Gets message.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets message.
+     *
+     * @param message the message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets line index.
+     *
+     * @return the line index
+     */
+    public Integer getLineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * Sets line index.
+     *
+     * @param lineIndex the line index
+     */
+    public void setLineIndex(Integer lineIndex) {
+        this.lineIndex = lineIndex;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.lotterymgmtapi.entity;
+
+import com.example.lotterymgmtapi.model.Line;
+
+import java.util.List;
+
+/**
+ * A window of the lines of a ticket ordered by result, returned once the status of the ticket has been checked.
+ */
+public class LotteryTicketLinesResponse {
+    private String id;
+
+    private int lineCount;
+
+    private int skip;
+
+    private List<Line> lines;
+
+    /**
+     * Instantiates a new Lottery ticket lines response.
+     */
+    public LotteryTicketLinesResponse() {
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id of the ticket
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the id of the ticket
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets line count.
+     *
+     * @return the number of lines of the ticket
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Sets line count.
+     *
+     * @param lineCount the number of lines of the ticket
+     */
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Gets skip.
+     *
+     * @return the number of ordered lines skipped before the window
+     */
+    public int getSkip() {
+        return skip;
+    }
+
+    /**
+     * Sets skip.
+     *
+     * @param skip the number of ordered lines skipped before the window
+     */
+    public void setSkip(int skip) {
+        this.skip = skip;
+    }
+
+    /**
+     * Gets lines.
+     *
+     * @return the lines of the window, ordered by result
+     */
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Sets lines.
+     *
+     * @param lines the lines of the window, ordered by result
+     */
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.lotterymgmtapi.entity;
+
+import java.util.List;
+
+/**
+ * The type Lottery ticket page.
+ */
+public class LotteryTicketPage {
+    private List<LotteryTicketResponse> tickets;
+
+    private String nextPageToken;
+
+    /**
+     * Instantiates a new Lottery ticket page.
+     */
+    public LotteryTicketPage() {
+    }
+
+    /**
+     * Instantiates a new Lottery ticket page.
+     *
+     * @param tickets       the tickets
+     * @param nextPageToken the token of the next page, null if this is the last page
+     */
+    public LotteryTicketPage(List<LotteryTicketResponse> tickets, String nextPageToken) {
+        this.tickets = tickets;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Gets tickets.
+     *
+     * @return the tickets
+     */
+    public List<LotteryTicketResponse> getTickets() {
+        return tickets;
+    }
+
+    /**
+     * Sets tickets.
+     *
+     * @param tickets the tickets
+     */
+    public void setTickets(List<LotteryTicketResponse> tickets) {
+        this.tickets = tickets;
+    }
+
+    /**
+     * Gets next page token.
+     *
+     * @return the next page token
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    /**
+     * Sets next page token.
+     *
+     * @param nextPageToken the next page token
+     */
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.lotterymgmtapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.Date;
 import java.util.List;
 
 /**
  * The type Lottery ticket response.
+ * Fields that were not selected when the ticket was read are null and are not serialized.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LotteryTicketResponse {
     private String id;
 
@@ -19,6 +23,8 @@ public class LotteryTicketResponse {
 
     private boolean statusEnquired;
 
+    private Long version;
+
     /**
      * Instantiates a new Lottery ticket response.
      */
@@ -151,4 +157,22 @@ public class LotteryTicketResponse {
     public void setStatusEnquired(boolean statusEnquired) {
         this.statusEnquired = statusEnquired;
     }
+
+    /**
+     * Gets version, incremented on every update. 0 for tickets never updated.
+     *
+     * @return the version
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets version.
+     *
+     * @param version the version
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
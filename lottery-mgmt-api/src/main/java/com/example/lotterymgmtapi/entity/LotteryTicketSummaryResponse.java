@@ -0,0 +1,172 @@
+package com.example.lotterymgmtapi.entity;
+
+/**
+ * The results of the lines of a ticket, returned once the status of the ticket has been checked.
+ */
+public class LotteryTicketSummaryResponse {
+    private String id;
+
+    private int lineCount;
+
+    private long totalScore;
+
+    private int maxResult;
+
+    private int result0Count;
+
+    private int result1Count;
+
+    private int result5Count;
+
+    private int result10Count;
+
+    /**
+     * Instantiates a new Lottery ticket summary response.
+     */
+    public LotteryTicketSummaryResponse() {
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id of the ticket
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the id of the ticket
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets line count.
+     *
+     * @return the number of lines
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Sets line count.
+     *
+     * @param lineCount the number of lines
+     */
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Gets total score.
+     *
+     * @return the sum of the results of the lines
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Sets total score.
+     *
+     * @param totalScore the sum of the results of the lines
+     */
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    /**
+     * Gets max result.
+     *
+     * @return the best result of a line
+     */
+    public int getMaxResult() {
+        return maxResult;
+    }
+
+    /**
+     * Sets max result.
+     *
+     * @param maxResult the best result of a line
+     */
+    public void setMaxResult(int maxResult) {
+        this.maxResult = maxResult;
+    }
+
+    /**
+     * Gets result 0 count.
+     *
+     * @return the number of lines with result 0
+     */
+    public int getResult0Count() {
+        return result0Count;
+    }
+
+    /**
+     * Sets result 0 count.
+     *
+     * @param result0Count the number of lines with result 0
+     */
+    public void setResult0Count(int result0Count) {
+        this.result0Count = result0Count;
+    }
+
+    /**
+     * Gets result 1 count.
+     *
+     * @return the number of lines with result 1
+     */
+    public int getResult1Count() {
+        return result1Count;
+    }
+
+    /**
+     * Sets result 1 count.
+     *
+     * @param result1Count the number of lines with result 1
+     */
+    public void setResult1Count(int result1Count) {
+        this.result1Count = result1Count;
+    }
+
+    /**
+     * Gets result 5 count.
+     *
+     * @return the number of lines with result 5
+     */
+    public int getResult5Count() {
+        return result5Count;
+    }
+
+    /**
+     * Sets result 5 count.
+     *
+     * @param result5Count the number of lines with result 5
+     */
+    public void setResult5Count(int result5Count) {
+        this.result5Count = result5Count;
+    }
+
+    /**
+     * Gets result 10 count.
+     *
+     * @return the number of lines with result 10
+     */
+    public int getResult10Count() {
+        return result10Count;
+    }
+
+    /**
+     * Sets result 10 count.
+     *
+     * @param result10Count the number of lines with result 10
+     */
+    public void setResult10Count(int result10Count) {
+        this.result10Count = result10Count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.lotterymgmtapi.entity;
+
+import java.util.Date;
+
+/**
+ * The version of a ticket: what a client needs to know whether its copy of the ticket is current.
+ */
+public class LotteryTicketVersion {
+    private final long version;
+
+    private final Date updatedDateTime;
+
+    private final boolean statusEnquired;
+
+    /**
+     * Instantiates a new Lottery ticket version.
+     *
+     * @param version         the version, incremented on every update
+     * @param updatedDateTime the updated date time
+     * @param statusEnquired  the status enquired, the ticket can not change anymore once true
+     */
+    public LotteryTicketVersion(long version, Date updatedDateTime, boolean statusEnquired) {
+        this.version = version;
+        this.updatedDateTime = updatedDateTime;
+        this.statusEnquired = statusEnquired;
+    }
+
+    /**
+     * Gets version.
+     *
+     * @return the version, incremented on every update
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets updated date time.
+     *
+     * @return the updated date time
+     */
+    public Date getUpdatedDateTime() {
+        return updatedDateTime;
+    }
+
+    /**
+     * Is status enquired.
+     *
+     * @return the status enquired, the ticket can not change anymore once true
+     */
+    public boolean isStatusEnquired() {
+        return statusEnquired;
+    }
+}
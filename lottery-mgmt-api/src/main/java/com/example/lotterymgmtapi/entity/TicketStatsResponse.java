@@ -0,0 +1,234 @@
+package com.example.lotterymgmtapi.entity;
+
+import java.util.Date;
+
+/**
+ * The statistics of the tickets for an hour or a day.
+ */
+public class TicketStatsResponse {
+    private Date periodStart;
+
+    private Date periodEnd;
+
+    private long ticketsCreated;
+
+    private long ticketsUpdated;
+
+    private long ticketsChecked;
+
+    private long linesPlayed;
+
+    private long totalScore;
+
+    private long result0Count;
+
+    private long result1Count;
+
+    private long result5Count;
+
+    private long result10Count;
+
+    /**
+     * Instantiates a new Ticket stats response.
+     */
+    public TicketStatsResponse() {
+    }
+
+    /**
+     * Gets period start.
+     *
+     * @return the start of the period
+     */
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * Sets period start.
+     *
+     * @param periodStart the start of the period
+     */
+    public void setPeriodStart(Date periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    /**
+     * Gets period end.
+     *
+     * @return the end of the period, exclusive
+     */
+    public Date getPeriodEnd() {
+        return periodEnd;
+    }
+
+    /**
+     * Sets period end.
+     *
+     * @param periodEnd the end of the period, exclusive
+     */
+    public void setPeriodEnd(Date periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+
+    /**
+     * Gets tickets created.
+     *
+     * @return the number of tickets created in the period
+     */
+    public long getTicketsCreated() {
+        return ticketsCreated;
+    }
+
+    /**
+     * Sets tickets created.
+     *
+     * @param ticketsCreated the number of tickets created in the period
+     */
+    public void setTicketsCreated(long ticketsCreated) {
+        this.ticketsCreated = ticketsCreated;
+    }
+
+    /**
+     * Gets tickets updated.
+     *
+     * @return the number of ticket updates in the period
+     */
+    public long getTicketsUpdated() {
+        return ticketsUpdated;
+    }
+
+    /**
+     * Sets tickets updated.
+     *
+     * @param ticketsUpdated the number of ticket updates in the period
+     */
+    public void setTicketsUpdated(long ticketsUpdated) {
+        this.ticketsUpdated = ticketsUpdated;
+    }
+
+    /**
+     * Gets tickets checked.
+     *
+     * @return the number of tickets whose status was checked in the period
+     */
+    public long getTicketsChecked() {
+        return ticketsChecked;
+    }
+
+    /**
+     * Sets tickets checked.
+     *
+     * @param ticketsChecked the number of tickets whose status was checked in the period
+     */
+    public void setTicketsChecked(long ticketsChecked) {
+        this.ticketsChecked = ticketsChecked;
+    }
+
+    /**
+     * Gets lines played.
+     *
+     * @return the number of lines of the tickets checked in the period
+     */
+    public long getLinesPlayed() {
+        return linesPlayed;
+    }
+
+    /**
+     * Sets lines played.
+     *
+     * @param linesPlayed the number of lines of the tickets checked in the period
+     */
+    public void setLinesPlayed(long linesPlayed) {
+        this.linesPlayed = linesPlayed;
+    }
+
+    /**
+     * Gets total score.
+     *
+     * @return the sum of the results of the lines played
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Sets total score.
+     *
+     * @param totalScore the sum of the results of the lines played
+     */
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    /**
+     * Gets result 0 count.
+     *
+     * @return the number of lines played with result 0
+     */
+    public long getResult0Count() {
+        return result0Count;
+    }
+
+    /**
+     * Sets result 0 count.
+     *
+     * @param result0Count the number of lines played with result 0
+     */
+    public void setResult0Count(long result0Count) {
+        this.result0Count = result0Count;
+    }
+
+    /**
+     * Gets result 1 count.
+     *
+     * @return the number of lines played with result 1
+     */
+    public long getResult1Count() {
+        return result1Count;
+    }
+
+    /**
+     * Sets result 1 count.
+     *
+     * @param result1Count the number of lines played with result 1
+     */
+    public void setResult1Count(long result1Count) {
+        this.result1Count = result1Count;
+    }
+
+    /**
+     * Gets result 5 count.
+     *
+     * @return the number of lines played with result 5
+     */
+    public long getResult5Count() {
+        return result5Count;
+    }
+
+    /**
+     * Sets result 5 count.
+     *
+     * @param result5Count the number of lines played with result 5
+     */
+    public void setResult5Count(long result5Count) {
+        this.result5Count = result5Count;
+    }
+
+    /**
+     * Gets result 10 count.
+     *
+     * @return the number of lines played with result 10
+     */
+    public long getResult10Count() {
+        return result10Count;
+    }
+
+    /**
+     * Sets result 10 count.
+     *
+     * @param result10Count the number of lines played with result 10
+     */
+    public void setResult10Count(long result10Count) {
+        this.result10Count = result10Count;
+    }
+}
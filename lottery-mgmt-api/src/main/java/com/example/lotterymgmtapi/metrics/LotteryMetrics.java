@@ -0,0 +1,64 @@
+package com.example.lotterymgmtapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Application specific meters of the lottery API.
+ * <p>
+ * The timers of the service methods are recorded with {@link io.micrometer.core.annotation.Timed}, the Mongo
+ * commands by the driver listeners registered in {@link com.example.lotterymgmtapi.config.MetricsConfig}.
+ * The percentiles of the distributions are configured in application.properties.
+ */
+@Component
+public class LotteryMetrics {
+
+    /**
+     * Name of the distribution of the number of lines per created or amended ticket.
+     */
+    public static final String TICKET_LINES = "lottery.ticket.lines";
+
+    /**
+     * Name of the counter of requests rejected with a client error status.
+     */
+    public static final String REQUESTS_REJECTED = "lottery.requests.rejected";
+
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary ticketLines;
+
+    /**
+     * Instantiates the lottery metrics.
+     *
+     * @param meterRegistry the meter registry
+     */
+    @Autowired
+    public LotteryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ticketLines = DistributionSummary.builder(TICKET_LINES)
+                .description("Number of lines per created or amended ticket")
+                .baseUnit("lines")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the number of lines of a created or amended ticket.
+     *
+     * @param lineCount the number of lines
+     */
+    public void recordTicketLines(int lineCount) {
+        ticketLines.record(lineCount);
+    }
+
+    /**
+     * Count a request rejected with a client error status.
+     *
+     * @param operation the handler of the request, eg: createTicket
+     * @param status    the status of the response, eg: 404
+     */
+    public void recordRejectedRequest(String operation, int status) {
+        meterRegistry.counter(REQUESTS_REJECTED, "operation", operation, "status", String.valueOf(status)).increment();
+    }
+}
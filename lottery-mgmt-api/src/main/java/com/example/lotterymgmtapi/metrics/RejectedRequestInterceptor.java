@@ -0,0 +1,27 @@
+package com.example.lotterymgmtapi.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the requests to the lottery end points that complete with a client error status(400, 403, 404, 409 ...).
+ */
+@Component
+public class RejectedRequestInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    LotteryMetrics lotteryMetrics;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int status = response.getStatus();
+        if (status >= 400 && status < 500 && handler instanceof HandlerMethod) {
+            lotteryMetrics.recordRejectedRequest(((HandlerMethod) handler).getMethod().getName(), status);
+        }
+    }
+}
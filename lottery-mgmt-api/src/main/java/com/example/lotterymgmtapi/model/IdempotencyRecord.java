@@ -0,0 +1,240 @@
+package com.example.lotterymgmtapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The ticket created by a request with an Idempotency-Key. The user id and the key are the primary key, so a key
+ * can only be reserved once per user, and keys of different users never collide.
+ * A key whose ticket does not exist once pendingUntil has passed was left by a request that failed, and can be
+ * taken over by a retry. Records are removed by the TTL index on expiresAt once they expire.
+ */
+@Document("idempotencyKeys")
+public class IdempotencyRecord {
+    @Id
+    private Key id;
+
+    private String fingerprint;
+
+    private String ticketId;
+
+    private Date pendingUntil;
+
+    @Indexed(name = "expiresAt_ttl", expireAfterSeconds = 0)
+    private Date expiresAt;
+
+    /**
+     * Instantiates a new Idempotency record.
+     */
+    public IdempotencyRecord() {
+    }
+
+    /**
+     * Instantiates a new Idempotency record.
+     *
+     * @param id           the user id and idempotency key
+     * @param fingerprint  the fingerprint of the request
+     * @param ticketId     the id of the ticket created by the request
+     * @param pendingUntil the date time by which the request should have created its ticket
+     * @param expiresAt    the date time after which the key can be used again
+     */
+    public IdempotencyRecord(Key id, String fingerprint, String ticketId, Date pendingUntil, Date expiresAt) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.ticketId = ticketId;
+        this.pendingUntil = pendingUntil;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Fingerprint of a create ticket request, to detect a key reused for a different request:
+     * the Base64 SHA-256 digest of the length and UTF-8 bytes of the user id followed by the line codes.
+     *
+     * @param userId the user id of the request
+     * @param lines  the lines of the request
+     * @return the fingerprint
+     */
+    public static String fingerprint(String userId, PackedLines lines) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] userIdBytes = userId.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(userIdBytes.length).array());
+        digest.update(userIdBytes);
+        digest.update(lines.toCodes());
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the user id and idempotency key
+     */
+    public Key getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the user id and idempotency key
+     */
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets fingerprint.
+     *
+     * @return the fingerprint of the request
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Sets fingerprint.
+     *
+     * @param fingerprint the fingerprint of the request
+     */
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Gets ticket id.
+     *
+     * @return the id of the ticket created by the request
+     */
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    /**
+     * Sets ticket id.
+     *
+     * @param ticketId the id of the ticket created by the request
+     */
+    public void setTicketId(String ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    /**
+     * Gets pending until.
+     *
+     * @return the date time by which the request should have created its ticket
+     */
+    public Date getPendingUntil() {
+        return pendingUntil;
+    }
+
+    /**
+     * Sets pending until.
+     *
+     * @param pendingUntil the date time by which the request should have created its ticket
+     */
+    public void setPendingUntil(Date pendingUntil) {
+        this.pendingUntil = pendingUntil;
+    }
+
+    /**
+     * Is the request that reserved the key possibly still creating its ticket.
+     *
+     * @param now the current date time
+     * @return false once the lease of the request has passed
+     */
+    public boolean isPending(Date now) {
+        return pendingUntil != null && pendingUntil.after(now);
+    }
+
+    /**
+     * Gets expires at.
+     *
+     * @return the date time after which the key can be used again
+     */
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Sets expires at.
+     *
+     * @param expiresAt the date time after which the key can be used again
+     */
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * The primary key of an idempotency record: the Idempotency-Key in the scope of the user who sent it.
+     */
+    public static final class Key {
+        private String userId;
+
+        private String key;
+
+        /**
+         * Instantiates a new Key.
+         */
+        public Key() {
+        }
+
+        /**
+         * Instantiates a new Key.
+         *
+         * @param userId the user id of the request
+         * @param key    the idempotency key
+         */
+        public Key(String userId, String key) {
+            this.userId = userId;
+            this.key = key;
+        }
+
+        /**
+         * Gets user id.
+         *
+         * @return the user id of the request
+         */
+        public String getUserId() {
+            return userId;
+        }
+
+        /**
+         * Gets key.
+         *
+         * @return the idempotency key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(userId, other.userId) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, key);
+        }
+    }
+}
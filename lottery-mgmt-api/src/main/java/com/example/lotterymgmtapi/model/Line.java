@@ -1,5 +1,6 @@
 package com.example.lotterymgmtapi.model;
 
+import com.example.lotterymgmtapi.engine.ResultEngine;
 
 /**
  * The type Line.
@@ -19,6 +20,16 @@ public class Line {
         this.result = result;
     }
 
+    /**
+     * Instantiates a new Line from its base-3 code, the result is derived from the code.
+     *
+     * @param code the code in range 0 - 26
+     * @return the line
+     */
+    public static Line fromCode(int code) {
+        return new Line(ResultEngine.numbersOf(code), ResultEngine.resultOf(code));
+    }
+
     /**
      * Gets numbers.
      *
@@ -0,0 +1,253 @@
+package com.example.lotterymgmtapi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The type Lottery ticket.
+ * The tickets of a user are read newest first through the userId, createdDateTime index.
+ * In a sharded cluster the tickets are distributed by the hash of their id: every operation on a ticket is by id
+ * and targets a single shard, and the increasing ids of new tickets are spread over all shards.
+ */
+@Document
+@CompoundIndex(name = "userId_createdDateTime", def = "{'userId': 1, 'createdDateTime': -1, '_id': -1}")
+@Sharded(shardingStrategy = ShardingStrategy.HASH, immutableKey = true)
+public class LotteryTicket {
+    @Id
+    private String id;
+
+    private PackedLines lines;
+
+    private TicketSummary summary;
+
+    private String userId;
+
+    private Date createdDateTime;
+
+    private Date updatedDateTime;
+
+    private boolean statusEnquired;
+
+    @Version
+    private Long version;
+
+    /**
+     * Instantiates a new Lottery ticket.
+     */
+    public LotteryTicket() {
+    }
+
+    /**
+     * Instantiates a new Lottery ticket.
+     *
+     * @param lines           the lines
+     * @param userId          the user id
+     * @param createdDateTime the created date time
+     * @param updatedDateTime the updated date time
+     * @param statusEnquired  the status enquired
+     */
+    public LotteryTicket(List<Line> lines, String userId, Date createdDateTime, Date updatedDateTime, boolean statusEnquired) {
+        this(PackedLines.fromLines(lines), userId, createdDateTime, updatedDateTime, statusEnquired);
+    }
+
+    /**
+     * Instantiates a new Lottery ticket.
+     *
+     * @param lines           the packed lines
+     * @param userId          the user id
+     * @param createdDateTime the created date time
+     * @param updatedDateTime the updated date time
+     * @param statusEnquired  the status enquired
+     */
+    public LotteryTicket(PackedLines lines, String userId, Date createdDateTime, Date updatedDateTime, boolean statusEnquired) {
+        this.lines = lines;
+        this.summary = TicketSummary.of(lines);
+        this.userId = userId;
+        this.createdDateTime = createdDateTime;
+        this.updatedDateTime = updatedDateTime;
+        this.statusEnquired = statusEnquired;
+    }
+
+    /**
+     * Gets id.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id the id
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets lines. The lines are decoded from the packed lines on every call.
+     *
+     * @return the lines
+     */
+    public List<Line> getLines() {
+        return lines == null ? null : lines.toLines();
+    }
+
+    /**
+     * Sets lines, the summary of the lines is updated.
+     *
+     * @param lines the lines
+     */
+    public void setLines(List<Line> lines) {
+        setPackedLines(lines == null ? null : PackedLines.fromLines(lines));
+    }
+
+    /**
+     * Gets packed lines.
+     *
+     * @return the packed lines
+     */
+    @JsonIgnore
+    public PackedLines getPackedLines() {
+        return lines;
+    }
+
+    /**
+     * Sets packed lines, the summary of the lines is updated.
+     *
+     * @param lines the packed lines
+     */
+    public void setPackedLines(PackedLines lines) {
+        this.lines = lines;
+        this.summary = lines == null ? null : TicketSummary.of(lines);
+    }
+
+    /**
+     * Replaces the lines by the same lines in another order, eg: sorted by result. The summary of the lines is kept.
+     *
+     * @param lines the reordered packed lines
+     */
+    public void reorderLines(PackedLines lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * Gets the summary of the results of the lines. Null for tickets created before summaries were stored.
+     *
+     * @return the summary
+     */
+    @JsonIgnore
+    public TicketSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Sets summary.
+     *
+     * @param summary the summary
+     */
+    public void setSummary(TicketSummary summary) {
+        this.summary = summary;
+    }
+
+    /**
+     * Gets user id.
+     *
+     * @return the user id
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Sets user id.
+     *
+     * @param userId the user id
+     */
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Gets created date time.
+     *
+     * @return the created date time
+     */
+    public Date getCreatedDateTime() {
+        return createdDateTime;
+    }
+
+    /**
+     * Sets created date time.
+     *
+     * @param createdDateTime the created date time
+     */
+    public void setCreatedDateTime(Date createdDateTime) {
+        this.createdDateTime = createdDateTime;
+    }
+
+    /**
+     * Gets status enquired.
+     *
+     * @return the status enquired
+     */
+    public boolean getStatusEnquired() {
+        return statusEnquired;
+    }
+
+    /**
+     * Sets status enquired.
+     *
+     * @param statusEnquired the status enquired
+     */
+    public void setStatusEnquired(boolean statusEnquired) {
+        this.statusEnquired = statusEnquired;
+    }
+
+    /**
+     * Gets updated date time.
+     *
+     * @return the updated date time
+     */
+    public Date getUpdatedDateTime() {
+        return updatedDateTime;
+    }
+
+    /**
+     * Sets updated date time.
+     *
+     * @param updatedDateTime the updated date time
+     */
+    public void setUpdatedDateTime(Date updatedDateTime) {
+        this.updatedDateTime = updatedDateTime;
+    }
+
+    /**
+     * Gets version, incremented on every update. Null for tickets created before versioning.
+     *
+     * @return the version
+     */
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets version.
+     *
+     * @param version the version
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
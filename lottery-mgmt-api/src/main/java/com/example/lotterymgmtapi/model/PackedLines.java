@@ -0,0 +1,175 @@
+package com.example.lotterymgmtapi.model;
+
+import com.example.lotterymgmtapi.engine.ResultEngine;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The compact representation of the lines on a lottery ticket.
+ * <p>
+ * Each line is stored as a single byte holding its base-3 code (see {@link ResultEngine}),
+ * the numbers and the result of a line are derived from the code. The lines are persisted
+ * as a single BSON binary field.
+ */
+public final class PackedLines {
+
+    private final byte[] codes;
+
+    private PackedLines(byte[] codes) {
+        this.codes = codes;
+    }
+
+    /**
+     * Instantiates packed lines from line codes. The array is used as is and must not be modified afterwards.
+     *
+     * @param codes the line codes, each in range 0 - 26
+     * @return the packed lines
+     * @throws IllegalArgumentException if a code is out of range
+     */
+    public static PackedLines fromCodes(byte[] codes) {
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] < 0 || codes[i] >= ResultEngine.LINE_COUNT) {
+                throw new IllegalArgumentException("Invalid lottery line code at index " + i + ": " + codes[i]);
+            }
+        }
+        return new PackedLines(codes);
+    }
+
+    /**
+     * Instantiates packed lines from the numbers of each line.
+     *
+     * @param numbers the numbers of each line, eg: ["000", "012"]
+     * @return the packed lines
+     * @throws IllegalArgumentException if a line is not 3 numbers in range 0 - 2
+     */
+    public static PackedLines fromNumbers(List<String> numbers) {
+        byte[] codes = new byte[numbers.size()];
+        int i = 0;
+        for (String line : numbers) {
+            int code = ResultEngine.encode(line);
+            if (code == ResultEngine.INVALID) {
+                throw new IllegalArgumentException("Invalid lottery line at index " + i + ": " + line);
+            }
+            codes[i++] = (byte) code;
+        }
+        return new PackedLines(codes);
+    }
+
+    /**
+     * Instantiates packed lines from lines. The results of the lines are not stored, they are derived from the numbers.
+     *
+     * @param lines the lines
+     * @return the packed lines
+     */
+    public static PackedLines fromLines(List<Line> lines) {
+        byte[] codes = new byte[lines.size()];
+        int i = 0;
+        for (Line line : lines) {
+            int code = ResultEngine.encode(line.getNumbers());
+            if (code == ResultEngine.INVALID) {
+                throw new IllegalArgumentException("Invalid lottery line at index " + i + ": " + line.getNumbers());
+            }
+            codes[i++] = (byte) code;
+        }
+        return new PackedLines(codes);
+    }
+
+    /**
+     * Gets the number of lines.
+     *
+     * @return the size
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Gets the code of a line.
+     *
+     * @param index the index of the line
+     * @return the code
+     */
+    public int codeAt(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Gets the result of a line.
+     *
+     * @param index the index of the line
+     * @return the result
+     */
+    public int resultAt(int index) {
+        return ResultEngine.resultOf(codes[index]);
+    }
+
+    /**
+     * Gets the numbers of a line.
+     *
+     * @param index the index of the line
+     * @return the numbers
+     */
+    public String numbersAt(int index) {
+        return ResultEngine.numbersOf(codes[index]);
+    }
+
+    /**
+     * Gets a read-only view of the numbers of each line. No String is allocated per line.
+     *
+     * @return the numbers
+     */
+    public List<String> numbers() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return numbersAt(index);
+            }
+
+            @Override
+            public int size() {
+                return codes.length;
+            }
+        };
+    }
+
+    /**
+     * Decode the lines.
+     *
+     * @return a new list of lines
+     */
+    public List<Line> toLines() {
+        List<Line> lines = new ArrayList<>(codes.length);
+        for (byte code : codes) {
+            lines.add(Line.fromCode(code));
+        }
+        return lines;
+    }
+
+    /**
+     * Gets a copy of the line codes.
+     *
+     * @return the codes
+     */
+    public byte[] toCodes() {
+        return codes.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(codes, ((PackedLines) o).codes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(codes);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.lotterymgmtapi.model;
+
+import com.example.lotterymgmtapi.engine.ResultEngine;
+
+/**
+ * The results of the lines of a ticket, aggregated when the lines are written so that they
+ * can be read without loading the lines.
+ */
+public class TicketSummary {
+    private int lineCount;
+
+    private long totalScore;
+
+    private int maxResult;
+
+    private int result0Count;
+
+    private int result1Count;
+
+    private int result5Count;
+
+    private int result10Count;
+
+    /**
+     * Instantiates a new Ticket summary.
+     */
+    public TicketSummary() {
+    }
+
+    /**
+     * Aggregate the results of lines.
+     *
+     * @param lines the lines
+     * @return the ticket summary
+     */
+    public static TicketSummary of(PackedLines lines) {
+        TicketSummary summary = new TicketSummary();
+        int size = lines.size();
+        for (int i = 0; i < size; i++) {
+            int result = ResultEngine.resultOf(lines.codeAt(i));
+            summary.totalScore += result;
+            summary.maxResult = Math.max(summary.maxResult, result);
+            switch (result) {
+                case 10:
+                    summary.result10Count++;
+                    break;
+                case 5:
+                    summary.result5Count++;
+                    break;
+                case 1:
+                    summary.result1Count++;
+                    break;
+                default:
+                    summary.result0Count++;
+            }
+        }
+        summary.lineCount = size;
+        return summary;
+    }
+
+    /**
+     * Gets line count.
+     *
+     * @return the number of lines
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Sets line count.
+     *
+     * @param lineCount the number of lines
+     */
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Gets total score.
+     *
+     * @return the sum of the results of the lines
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Sets total score.
+     *
+     * @param totalScore the sum of the results of the lines
+     */
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    /**
+     * Gets max result.
+     *
+     * @return the best result of a line
+     */
+    public int getMaxResult() {
+        return maxResult;
+    }
+
+    /**
+     * Sets max result.
+     *
+     * @param maxResult the best result of a line
+     */
+    public void setMaxResult(int maxResult) {
+        this.maxResult = maxResult;
+    }
+
+    /**
+     * Gets result 0 count.
+     *
+     * @return the number of lines with result 0
+     */
+    public int getResult0Count() {
+        return result0Count;
+    }
+
+    /**
+     * Sets result 0 count.
+     *
+     * @param result0Count the number of lines with result 0
+     */
+    public void setResult0Count(int result0Count) {
+        this.result0Count = result0Count;
+    }
+
+    /**
+     * Gets result 1 count.
+     *
+     * @return the number of lines with result 1
+     */
+    public int getResult1Count() {
+        return result1Count;
+    }
+
+    /**
+     * Sets result 1 count.
+     *
+     * @param result1Count the number of lines with result 1
+     */
+    public void setResult1Count(int result1Count) {
+        this.result1Count = result1Count;
+    }
+
+    /**
+     * Gets result 5 count.
+     *
+     * @return the number of lines with result 5
+     */
+    public int getResult5Count() {
+        return result5Count;
+    }
+
+    /**
+     * Sets result 5 count.
+     *
+     * @param result5Count the number of lines with result 5
+     */
+    public void setResult5Count(int result5Count) {
+        this.result5Count = result5Count;
+    }
+
+    /**
+     * Gets result 10 count.
+     *
+     * @return the number of lines with result 10
+     */
+    public int getResult10Count() {
+        return result10Count;
+    }
+
+    /**
+     * Sets result 10 count.
+     *
+     * @param result10Count the number of lines with result 10
+     */
+    public void setResult10Count(int result10Count) {
+        this.result10Count = result10Count;
+    }
+}
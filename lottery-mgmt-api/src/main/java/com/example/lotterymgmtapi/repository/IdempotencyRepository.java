@@ -0,0 +1,11 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * The interface Idempotency repository.
+ * A key is reserved with {@link #insert(Object)}, which fails with a DuplicateKeyException if the key is already used.
+ */
+public interface IdempotencyRepository extends MongoRepository<IdempotencyRecord, IdempotencyRecord.Key>, IdempotencyRepositoryCustom {
+}
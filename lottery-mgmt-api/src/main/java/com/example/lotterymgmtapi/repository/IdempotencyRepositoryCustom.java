@@ -0,0 +1,27 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+
+/**
+ * The interface for the Idempotency repository operations that are not derived by Spring Data.
+ */
+public interface IdempotencyRepositoryCustom {
+
+    /**
+     * Atomically reserve a key for another request, only if it is still reserved for the ticket of the request whose
+     * lease has passed, so that concurrent retries can not both take the key over.
+     *
+     * @param record          the reservation of the retry
+     * @param expiredTicketId the id of the ticket the key is reserved for
+     * @return true if the key was taken over
+     */
+    boolean takeOver(IdempotencyRecord record, String expiredTicketId);
+
+    /**
+     * Delete the reservation of a key, only if it is still reserved for the ticket of the record.
+     *
+     * @param record the reservation to delete
+     * @return true if the reservation was deleted
+     */
+    boolean release(IdempotencyRecord record);
+}
@@ -0,0 +1,37 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The implementation of the custom Idempotency repository operations.
+ */
+public class IdempotencyRepositoryCustomImpl implements IdempotencyRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean takeOver(IdempotencyRecord record, String expiredTicketId) {
+        Update update = new Update()
+                .set("ticketId", record.getTicketId())
+                .set("pendingUntil", record.getPendingUntil())
+                .set("expiresAt", record.getExpiresAt());
+        return mongoTemplate.updateFirst(reservedFor(record.getId(), expiredTicketId), update, IdempotencyRecord.class)
+                .getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean release(IdempotencyRecord record) {
+        return mongoTemplate.remove(reservedFor(record.getId(), record.getTicketId()), IdempotencyRecord.class)
+                .getDeletedCount() == 1;
+    }
+
+    private static Query reservedFor(IdempotencyRecord.Key id, String ticketId) {
+        return Query.query(Criteria.where("id").is(id).and("ticketId").is(ticketId));
+    }
+}
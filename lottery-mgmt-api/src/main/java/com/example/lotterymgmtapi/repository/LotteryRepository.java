@@ -0,0 +1,77 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+
+/**
+ * The interface Lottery repository.
+ */
+public interface LotteryRepository extends MongoRepository<LotteryTicket, String>, LotteryRepositoryCustom {
+
+    /**
+     * Find the first page of tickets.
+     *
+     * @param pageable the page size and sort order
+     * @return the tickets
+     */
+    List<LotteryTicket> findAllBy(Pageable pageable);
+
+    /**
+     * Find the tickets after the given id (keyset pagination).
+     *
+     * @param id       the id of the last ticket of the previous page
+     * @param pageable the page size and sort order
+     * @return the tickets
+     */
+    List<LotteryTicket> findByIdGreaterThan(String id, Pageable pageable);
+
+    /**
+     * Find a ticket without loading its lines.
+     *
+     * @param id the id
+     * @return the ticket with every field set except the lines
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'lines' : 0 }")
+    Optional<LotteryTicket> findWithoutLinesById(String id);
+
+    /**
+     * Find the version of a ticket without loading its lines.
+     *
+     * @param id the id
+     * @return the ticket with only the id, the version, the updated date time and the status enquired set
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'version' : 1, 'updatedDateTime' : 1, 'statusEnquired' : 1 }")
+    Optional<LotteryTicket> findVersionById(String id);
+
+    /**
+     * Find the summary of a ticket without loading its lines.
+     *
+     * @param id the id
+     * @return the ticket with only the id, the status enquired and the summary set
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'statusEnquired' : 1, 'summary' : 1 }")
+    Optional<LotteryTicket> findSummaryById(String id);
+
+    /**
+     * Find the lines of a ticket without the other fields.
+     *
+     * @param id the id
+     * @return the ticket with only the id, the status enquired and the lines set
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'statusEnquired' : 1, 'lines' : 1 }")
+    Optional<LotteryTicket> findLinesById(String id);
+
+    /**
+     * Stream all tickets from a DB cursor. The stream must be closed to release the cursor.
+     *
+     * @return the tickets
+     */
+    Stream<LotteryTicket> streamAllBy();
+}
@@ -0,0 +1,91 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The interface for the Lottery repository operations that are not derived by Spring Data.
+ */
+public interface LotteryRepositoryCustom {
+
+    /**
+     * Insert tickets with a single unordered bulk write. A failed insert does not stop the others.
+     * The ids of the tickets must be set before the insert.
+     *
+     * @param lotteryTickets the tickets
+     * @return the error message of each failed insert by index of the ticket, empty if all were inserted
+     */
+    Map<Integer, String> insertAllUnordered(List<LotteryTicket> lotteryTickets);
+
+    /**
+     * Atomically mark the status of a ticket as enquired, if the ticket belongs to the user
+     * (same user id, case sensitive) and its status has not been enquired yet.
+     *
+     * @param id              the id
+     * @param userId          the user id
+     * @param updatedDateTime the updated date time
+     * @return the updated ticket, null if no ticket matched
+     */
+    LotteryTicket markStatusEnquired(String id, String userId, Date updatedDateTime);
+
+    /**
+     * Replace the lines of a ticket if it is still at the given version and its status has not been enquired.
+     * Only the lines, their summary, the updated date time and the version are written.
+     *
+     * @param id              the id
+     * @param version         the version the update is based on, tickets created without version are at version 0
+     * @param lines           the lines
+     * @param updatedDateTime the updated date time
+     * @return true if the ticket was updated, false if no ticket matched
+     */
+    boolean updateLines(String id, long version, PackedLines lines, Date updatedDateTime);
+
+    /**
+     * Find the tickets of a user, newest first (keyset pagination on createdDateTime and id).
+     *
+     * @param userId        the user id
+     * @param createdBefore the created date time of the last ticket of the previous page, null for the first page
+     * @param idBefore      the id of the last ticket of the previous page, null for the first page
+     * @param limit         the maximum number of tickets
+     * @return the tickets
+     */
+    List<LotteryTicket> findByUserId(String userId, Date createdBefore, String idBefore, int limit);
+
+    /**
+     * Find the tickets of a user, newest first, reading only some fields of the tickets.
+     *
+     * @param userId        the user id
+     * @param createdBefore the created date time of the last ticket of the previous page, null for the first page
+     * @param idBefore      the id of the last ticket of the previous page, null for the first page
+     * @param limit         the maximum number of tickets
+     * @param fields        the fields to read, the id is always read
+     * @return the tickets, with only the fields read set
+     * @see #findByUserId(String, Date, String, int)
+     */
+    List<LotteryTicket> findByUserId(String userId, Date createdBefore, String idBefore, int limit, Set<String> fields);
+
+    /**
+     * Find tickets ordered by id (keyset pagination on id), reading only some fields of the tickets.
+     *
+     * @param idAfter the id of the last ticket of the previous page, null for the first page
+     * @param limit   the maximum number of tickets
+     * @param fields  the fields to read, the id is always read
+     * @return the tickets, with only the fields read set
+     */
+    List<LotteryTicket> findAllAfter(String idAfter, int limit, Set<String> fields);
+
+    /**
+     * Stream all tickets from a DB cursor, reading only some fields of the tickets.
+     * The stream must be closed to release the cursor.
+     *
+     * @param fields the fields to read, the id is always read
+     * @return the tickets, with only the fields read set
+     */
+    Stream<LotteryTicket> streamAll(Set<String> fields);
+}
@@ -0,0 +1,128 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.StreamUtils;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The implementation of the custom Lottery repository operations.
+ */
+public class LotteryRepositoryCustomImpl implements LotteryRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<LotteryTicket> lotteryTickets) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (lotteryTickets.isEmpty()) {
+            return errors;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LotteryTicket.class)
+                    .insert(lotteryTickets)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public LotteryTicket markStatusEnquired(String id, String userId, Date updatedDateTime) {
+        Query query = Query.query(Criteria.where("id").is(id)
+                .and("userId").is(userId)
+                .and("statusEnquired").is(false));
+        Update update = new Update()
+                .set("statusEnquired", true)
+                .set("updatedDateTime", updatedDateTime)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), LotteryTicket.class);
+    }
+
+    @Override
+    public boolean updateLines(String id, long version, PackedLines lines, Date updatedDateTime) {
+        Query query = Query.query(versionIs(Criteria.where("id").is(id), version)
+                .and("statusEnquired").is(false));
+        Update update = new Update()
+                .set("lines", lines)
+                .set("summary", TicketSummary.of(lines))
+                .set("updatedDateTime", updatedDateTime)
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, LotteryTicket.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public List<LotteryTicket> findByUserId(String userId, Date createdBefore, String idBefore, int limit) {
+        return findByUserId(userId, createdBefore, idBefore, limit, null);
+    }
+
+    @Override
+    public List<LotteryTicket> findByUserId(String userId, Date createdBefore, String idBefore, int limit, Set<String> fields) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (createdBefore != null) {
+            criteria.orOperator(
+                    Criteria.where("createdDateTime").lt(createdBefore),
+                    Criteria.where("createdDateTime").is(createdBefore).and("id").lt(idBefore));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdDateTime", "id"))
+                .limit(limit);
+        include(query, fields);
+        return mongoTemplate.find(query, LotteryTicket.class);
+    }
+
+    @Override
+    public List<LotteryTicket> findAllAfter(String idAfter, int limit, Set<String> fields) {
+        Query query = new Query();
+        if (idAfter != null) {
+            query.addCriteria(Criteria.where("id").gt(idAfter));
+        }
+        query.with(Sort.by("id")).limit(limit);
+        include(query, fields);
+        return mongoTemplate.find(query, LotteryTicket.class);
+    }
+
+    @Override
+    public Stream<LotteryTicket> streamAll(Set<String> fields) {
+        Query query = new Query();
+        include(query, fields);
+        return StreamUtils.createStreamFromIterator(mongoTemplate.stream(query, LotteryTicket.class));
+    }
+
+    /**
+     * Match the tickets at the given version, including the tickets created without version for version 0.
+     */
+    static Criteria versionIs(Criteria criteria, long version) {
+        return version == 0 ? criteria.and("version").in(0L, null) : criteria.and("version").is(version);
+    }
+
+    /**
+     * Project the query on the given fields, all fields are read if null.
+     */
+    private static void include(Query query, Set<String> fields) {
+        if (fields != null) {
+            fields.forEach(field -> query.fields().include(field));
+        }
+    }
+}
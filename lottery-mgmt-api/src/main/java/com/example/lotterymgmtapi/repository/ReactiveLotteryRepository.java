@@ -0,0 +1,51 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * The interface Reactive lottery repository, used by the reactive execution mode.
+ * The queries mirror {@link LotteryRepository}.
+ */
+public interface ReactiveLotteryRepository extends ReactiveMongoRepository<LotteryTicket, String>, ReactiveLotteryRepositoryCustom {
+
+    /**
+     * Find the first page of tickets.
+     *
+     * @param pageable the page size and sort order
+     * @return the tickets
+     */
+    Flux<LotteryTicket> findAllBy(Pageable pageable);
+
+    /**
+     * Find the tickets after the given id (keyset pagination).
+     *
+     * @param id       the id of the last ticket of the previous page
+     * @param pageable the page size and sort order
+     * @return the tickets
+     */
+    Flux<LotteryTicket> findByIdGreaterThan(String id, Pageable pageable);
+
+    /**
+     * Find a ticket without loading its lines.
+     *
+     * @param id the id
+     * @return the ticket with every field set except the lines
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'lines' : 0 }")
+    Mono<LotteryTicket> findWithoutLinesById(String id);
+
+    /**
+     * Find the version of a ticket without loading its lines.
+     *
+     * @param id the id
+     * @return the ticket with only the id, the version, the updated date time and the status enquired set
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'version' : 1, 'updatedDateTime' : 1, 'statusEnquired' : 1 }")
+    Mono<LotteryTicket> findVersionById(String id);
+}
@@ -0,0 +1,37 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * The interface for the Reactive lottery repository operations that are not derived by Spring Data.
+ * The operations mirror {@link LotteryRepositoryCustom}.
+ */
+public interface ReactiveLotteryRepositoryCustom {
+
+    /**
+     * Atomically mark the status of a ticket as enquired, if the ticket belongs to the user
+     * (same user id, case sensitive) and its status has not been enquired yet.
+     *
+     * @param id              the id
+     * @param userId          the user id
+     * @param updatedDateTime the updated date time
+     * @return the updated ticket, empty if no ticket matched
+     */
+    Mono<LotteryTicket> markStatusEnquired(String id, String userId, Date updatedDateTime);
+
+    /**
+     * Replace the lines of a ticket if it is still at the given version and its status has not been enquired.
+     * Only the lines, their summary, the updated date time and the version are written.
+     *
+     * @param id              the id
+     * @param version         the version the update is based on, tickets created without version are at version 0
+     * @param lines           the lines
+     * @param updatedDateTime the updated date time
+     * @return true if the ticket was updated, false if no ticket matched
+     */
+    Mono<Boolean> updateLines(String id, long version, PackedLines lines, Date updatedDateTime);
+}
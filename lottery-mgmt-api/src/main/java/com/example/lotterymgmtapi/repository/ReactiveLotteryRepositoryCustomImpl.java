@@ -0,0 +1,48 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * The implementation of the custom Reactive lottery repository operations.
+ */
+public class ReactiveLotteryRepositoryCustomImpl implements ReactiveLotteryRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<LotteryTicket> markStatusEnquired(String id, String userId, Date updatedDateTime) {
+        Query query = Query.query(Criteria.where("id").is(id)
+                .and("userId").is(userId)
+                .and("statusEnquired").is(false));
+        Update update = new Update()
+                .set("statusEnquired", true)
+                .set("updatedDateTime", updatedDateTime)
+                .inc("version", 1);
+        return reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), LotteryTicket.class);
+    }
+
+    @Override
+    public Mono<Boolean> updateLines(String id, long version, PackedLines lines, Date updatedDateTime) {
+        Query query = Query.query(LotteryRepositoryCustomImpl.versionIs(Criteria.where("id").is(id), version)
+                .and("statusEnquired").is(false));
+        Update update = new Update()
+                .set("lines", lines)
+                .set("summary", TicketSummary.of(lines))
+                .set("updatedDateTime", updatedDateTime)
+                .inc("version", 1);
+        return reactiveMongoTemplate.updateFirst(query, update, LotteryTicket.class)
+                .map(result -> result.getModifiedCount() == 1);
+    }
+}
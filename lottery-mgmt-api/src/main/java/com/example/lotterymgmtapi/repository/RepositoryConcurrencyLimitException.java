@@ -0,0 +1,20 @@
+package com.example.lotterymgmtapi.repository;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown when a repository call is rejected by the {@link RepositoryConcurrencyLimiter}.
+ * The call was not sent to the DB and can be retried.
+ */
+public class RepositoryConcurrencyLimitException extends TransientDataAccessResourceException {
+
+    /**
+     * Instantiates a new Repository concurrency limit exception.
+     *
+     * @param msg   the message
+     * @param cause the cause, may be null
+     */
+    public RepositoryConcurrencyLimitException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
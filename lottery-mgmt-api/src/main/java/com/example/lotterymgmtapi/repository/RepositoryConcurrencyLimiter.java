@@ -0,0 +1,124 @@
+package com.example.lotterymgmtapi.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Limits the number of concurrent calls to the blocking repositories, to protect the Mongo connection pool
+ * when requests are handled by an unbounded number of threads, eg: virtual threads.
+ * <p>
+ * A call waits up to the acquire timeout for a permit, and is then rejected with a
+ * {@link RepositoryConcurrencyLimitException} instead of queueing in the driver. The permit is held while the
+ * repository method runs, and for a returned stream until the stream is closed, since its cursor holds a connection
+ * while it is read.
+ * Only active when lottery.mongo.max-concurrency is set.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "lottery.mongo", name = "max-concurrency")
+public class RepositoryConcurrencyLimiter implements MeterBinder {
+
+    private final Semaphore permits;
+
+    private final int maxConcurrency;
+
+    private final Duration acquireTimeout;
+
+    private Counter rejectedCounter;
+
+    /**
+     * Instantiates a new Repository concurrency limiter.
+     *
+     * @param maxConcurrency the maximum number of concurrent repository calls
+     * @param acquireTimeout the time a call waits for a permit before being rejected
+     */
+    @Autowired
+    public RepositoryConcurrencyLimiter(@Value("${lottery.mongo.max-concurrency}") int maxConcurrency,
+                                        @Value("${lottery.mongo.acquire-timeout:1s}") Duration acquireTimeout) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("lottery.mongo.max-concurrency should be at least 1: " + maxConcurrency);
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Run a repository call once a permit is acquired. The permit of a call returning a stream is released when the
+     * stream is closed.
+     *
+     * @param joinPoint the repository call
+     * @return the result of the call
+     * @throws Throwable the exception thrown by the call
+     */
+    @Around("execution(* com.example.lotterymgmtapi.repository.LotteryRepository+.*(..))"
+            + " || execution(* com.example.lotterymgmtapi.repository.TicketStatsRepository+.*(..))"
+            + " || execution(* com.example.lotterymgmtapi.repository.IdempotencyRepository+.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryConcurrencyLimitException("Interrupted while waiting for a repository permit", e);
+        }
+        if (!acquired) {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            throw new RepositoryConcurrencyLimitException("No repository permit available within " + acquireTimeout
+                    + " for " + joinPoint.getSignature().toShortString(), null);
+        }
+        boolean released = false;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Stream) {
+                released = true;
+                return ((Stream<?>) result).onClose(permits::release);
+            }
+            return result;
+        } finally {
+            if (!released) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of repository calls in progress.
+     *
+     * @return the number of permits in use
+     */
+    public int getInUse() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Publish the permits in use(lottery.mongo.concurrency.in.use) and the rejected calls(lottery.mongo.concurrency.rejected).
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lottery.mongo.concurrency.in.use", this, RepositoryConcurrencyLimiter::getInUse)
+                .description("Repository calls in progress")
+                .register(registry);
+        rejectedCounter = Counter.builder("lottery.mongo.concurrency.rejected")
+                .description("Repository calls rejected because no permit was available in time")
+                .register(registry);
+    }
+}
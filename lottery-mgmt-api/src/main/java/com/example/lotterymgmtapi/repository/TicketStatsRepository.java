@@ -0,0 +1,22 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.TicketStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The interface Ticket stats repository.
+ */
+public interface TicketStatsRepository extends MongoRepository<TicketStats, Date>, TicketStatsRepositoryCustom {
+
+    /**
+     * Find the stats of the hours in a range, read through the _id index.
+     *
+     * @param from the start of the range
+     * @param to   the end of the range, exclusive
+     * @return the stats of the hours with activity, ordered by hour
+     */
+    List<TicketStats> findByPeriodGreaterThanEqualAndPeriodLessThanOrderByPeriod(Date from, Date to);
+}
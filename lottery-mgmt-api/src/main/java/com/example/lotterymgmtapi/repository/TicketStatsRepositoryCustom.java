@@ -0,0 +1,17 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.TicketStats;
+
+/**
+ * The interface for the Ticket stats repository operations that are not derived by Spring Data.
+ */
+public interface TicketStatsRepositoryCustom {
+
+    /**
+     * Atomically increment the counters of an hour by the counters of the given stats,
+     * creating the stats of the hour if they do not exist yet.
+     *
+     * @param increment the hour and the amounts to add, counters at 0 are not written
+     */
+    void increment(TicketStats increment);
+}
@@ -0,0 +1,41 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.TicketStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The implementation of the custom Ticket stats repository operations.
+ */
+public class TicketStatsRepositoryCustomImpl implements TicketStatsRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(TicketStats increment) {
+        Update update = new Update();
+        inc(update, "ticketsCreated", increment.getTicketsCreated());
+        inc(update, "ticketsUpdated", increment.getTicketsUpdated());
+        inc(update, "ticketsChecked", increment.getTicketsChecked());
+        inc(update, "linesPlayed", increment.getLinesPlayed());
+        inc(update, "totalScore", increment.getTotalScore());
+        inc(update, "result0Count", increment.getResult0Count());
+        inc(update, "result1Count", increment.getResult1Count());
+        inc(update, "result5Count", increment.getResult5Count());
+        inc(update, "result10Count", increment.getResult10Count());
+        if (update.getUpdateObject().isEmpty()) {
+            return;
+        }
+        mongoTemplate.upsert(Query.query(Criteria.where("period").is(increment.getPeriod())), update, TicketStats.class);
+    }
+
+    private static void inc(Update update, String key, long amount) {
+        if (amount != 0) {
+            update.inc(key, amount);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.lotterymgmtapi.service;
+
+/**
+ * Thrown when a request can not be answered for its Idempotency-Key: the key was used
+ * for a different request, or the request that first used the key is still in progress.
+ */
+public class IdempotencyKeyConflictException extends Exception {
+
+    /**
+     * Instantiates a new Idempotency key conflict exception.
+     *
+     * @param message the reason of the conflict
+     */
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
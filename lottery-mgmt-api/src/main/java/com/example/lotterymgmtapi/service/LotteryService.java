@@ -0,0 +1,749 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.cache.IdempotencyCache;
+import com.example.lotterymgmtapi.cache.TicketCache;
+import com.example.lotterymgmtapi.engine.LineSorter;
+import com.example.lotterymgmtapi.entity.LotteryTicketBatchResult;
+import com.example.lotterymgmtapi.entity.LotteryTicketLinesResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketSummaryResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.IdempotencyRepository;
+import com.example.lotterymgmtapi.repository.LotteryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.AccessDeniedException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The type Lottery service.
+ */
+@Service
+public class LotteryService {
+
+    /**
+     * Name of the timer of the service methods, tagged with the class and method names.
+     */
+    public static final String SERVICE_TIMER = "lottery.service";
+
+    /**
+     * Fields of a ticket that can be selected when reading tickets. The id and the status enquired are always read.
+     */
+    public static final Set<String> TICKET_FIELDS = Set.of("id", "lines", "userId", "createdDateTime", "updatedDateTime", "statusEnquired");
+
+    private static final String PAGE_TOKEN_SEPARATOR = "_";
+
+    @Autowired
+    private LotteryRepository lotteryRepository;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private LotteryMetrics lotteryMetrics;
+
+    @Autowired
+    private TicketStatsService ticketStatsService;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private TicketIdGenerator ticketIdGenerator;
+
+    @Autowired(required = false)
+    private TicketWriteBehind ticketWriteBehind;
+
+    /**
+     * Gets a page of tickets ordered by id. Pages are read with keyset pagination:
+     * the token of the next page is the id of the last ticket on the current page.
+     *
+     * @param pageToken the page token, null for the first page
+     * @param pageSize  the page size
+     * @return the page of tickets
+     * @throws IllegalArgumentException if the page token is invalid
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketPage getAllTickets(String pageToken, int pageSize) {
+        return getAllTickets(pageToken, pageSize, null);
+    }
+
+    /**
+     * Gets a page of tickets ordered by id, reading only the selected fields of the tickets.
+     *
+     * @param pageToken the page token, null for the first page
+     * @param pageSize  the page size
+     * @param fields    the fields of the tickets, see {@link #TICKET_FIELDS}, null for all fields
+     * @return the page of tickets, the fields not selected are not set
+     * @throws IllegalArgumentException if the page token is invalid
+     * @see #getAllTickets(String, int)
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketPage getAllTickets(String pageToken, int pageSize, Set<String> fields) {
+        if (pageToken != null && !ObjectId.isValid(pageToken)) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken);
+        }
+        // One more ticket than requested is read to know if there is a next page
+        List<LotteryTicket> lotteryTickets;
+        if (fields != null) {
+            lotteryTickets = lotteryRepository.findAllAfter(pageToken, pageSize + 1, projectionOf(fields));
+        } else if (pageToken == null) {
+            lotteryTickets = lotteryRepository.findAllBy(PageRequest.of(0, pageSize + 1, Sort.by("id")));
+        } else {
+            lotteryTickets = lotteryRepository.findByIdGreaterThan(pageToken, PageRequest.of(0, pageSize + 1, Sort.by("id")));
+        }
+        String nextPageToken = null;
+        if (lotteryTickets.size() > pageSize) {
+            lotteryTickets = lotteryTickets.subList(0, pageSize);
+            nextPageToken = lotteryTickets.get(pageSize - 1).getId();
+        }
+        // The Response model is different from the DB model because
+        // the status field should not be send back in the response
+        List<LotteryTicketResponse> responseList = lotteryTickets.stream()
+                .map(lotteryTicket -> selectFields(prepareLotteryResponse(lotteryTicket), fields))
+                .collect(Collectors.toList());
+        return new LotteryTicketPage(responseList, nextPageToken);
+    }
+
+    /**
+     * Gets a page of the tickets of a user, newest first. Pages are read with keyset pagination:
+     * the token of the next page holds the created date time and the id of the last ticket on the current page.
+     *
+     * @param userId    the user id
+     * @param pageToken the page token, null for the first page
+     * @param pageSize  the page size
+     * @return the page of tickets
+     * @throws IllegalArgumentException if the page token is invalid
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketPage getTicketsByUserId(String userId, String pageToken, int pageSize) {
+        return getTicketsByUserId(userId, pageToken, pageSize, null);
+    }
+
+    /**
+     * Gets a page of the tickets of a user, newest first, reading only the selected fields of the tickets.
+     *
+     * @param userId    the user id
+     * @param pageToken the page token, null for the first page
+     * @param pageSize  the page size
+     * @param fields    the fields of the tickets, see {@link #TICKET_FIELDS}, null for all fields
+     * @return the page of tickets, the fields not selected are not set
+     * @throws IllegalArgumentException if the page token is invalid
+     * @see #getTicketsByUserId(String, String, int)
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketPage getTicketsByUserId(String userId, String pageToken, int pageSize, Set<String> fields) {
+        Date createdBefore = null;
+        String idBefore = null;
+        if (pageToken != null) {
+            int separator = pageToken.indexOf(PAGE_TOKEN_SEPARATOR);
+            try {
+                createdBefore = new Date(Long.parseLong(pageToken.substring(0, separator)));
+                idBefore = pageToken.substring(separator + 1);
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+            }
+            if (!ObjectId.isValid(idBefore)) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken);
+            }
+        }
+        List<LotteryTicket> lotteryTickets;
+        if (fields == null) {
+            lotteryTickets = lotteryRepository.findByUserId(userId, createdBefore, idBefore, pageSize + 1);
+        } else {
+            // The created date time is part of the page token
+            Set<String> projection = projectionOf(fields);
+            projection.add("createdDateTime");
+            lotteryTickets = lotteryRepository.findByUserId(userId, createdBefore, idBefore, pageSize + 1, projection);
+        }
+        String nextPageToken = null;
+        if (lotteryTickets.size() > pageSize) {
+            lotteryTickets = lotteryTickets.subList(0, pageSize);
+            LotteryTicket last = lotteryTickets.get(pageSize - 1);
+            nextPageToken = last.getCreatedDateTime().getTime() + PAGE_TOKEN_SEPARATOR + last.getId();
+        }
+        List<LotteryTicketResponse> responseList = lotteryTickets.stream()
+                .map(lotteryTicket -> selectFields(prepareLotteryResponse(lotteryTicket), fields))
+                .collect(Collectors.toList());
+        return new LotteryTicketPage(responseList, nextPageToken);
+    }
+
+    /**
+     * Stream all tickets as they are read from the DB cursor.
+     * The stream must be closed to release the cursor.
+     *
+     * @return the stream of tickets
+     */
+    @Timed(SERVICE_TIMER)
+    public Stream<LotteryTicketResponse> streamAllTickets() {
+        return lotteryRepository.streamAllBy().map(lotteryTicket -> prepareLotteryResponse(lotteryTicket));
+    }
+
+    /**
+     * Stream all tickets as they are read from the DB cursor, reading only the selected fields of the tickets.
+     * The stream must be closed to release the cursor.
+     *
+     * @param fields the fields of the tickets, see {@link #TICKET_FIELDS}, null for all fields
+     * @return the stream of tickets, the fields not selected are not set
+     */
+    @Timed(SERVICE_TIMER)
+    public Stream<LotteryTicketResponse> streamAllTickets(Set<String> fields) {
+        if (fields == null) {
+            return streamAllTickets();
+        }
+        return lotteryRepository.streamAll(projectionOf(fields))
+                .map(lotteryTicket -> selectFields(prepareLotteryResponse(lotteryTicket), fields));
+    }
+
+
+    /**
+     * Gets ticket by id.
+     *
+     * @param id the id
+     * @return the ticket by id
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse getTicketById(String id) {
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return cachedTicket;
+        }
+        LotteryTicket lotteryTicket = lotteryRepository.findById(id).orElseThrow();
+        LotteryTicketResponse response = prepareLotteryResponse(lotteryTicket);
+        ticketCache.put(response);
+        return response;
+    }
+
+
+    /**
+     * Gets ticket by id, with only the selected fields. Unless the lines are selected, they are not read.
+     *
+     * @param id     the id
+     * @param fields the fields of the ticket, see {@link #TICKET_FIELDS}, null for all fields
+     * @return the ticket by id, the fields not selected are not set
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse getTicketById(String id, Set<String> fields) {
+        if (fields == null || fields.contains("lines")) {
+            return selectFields(getTicketById(id), fields);
+        }
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return selectFields(cachedTicket, fields);
+        }
+        return selectFields(prepareLotteryResponse(lotteryRepository.findWithoutLinesById(id).orElseThrow()), fields);
+    }
+
+    /**
+     * Gets the version of a ticket, to answer conditional requests without loading the ticket.
+     * The version is read from the cache, or else from the DB without the lines.
+     *
+     * @param id the id
+     * @return the ticket version
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketVersion getTicketVersionById(String id) {
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return new LotteryTicketVersion(cachedTicket.getVersion(), cachedTicket.getUpdatedDateTime(), cachedTicket.isStatusEnquired());
+        }
+        LotteryTicket lotteryTicket = lotteryRepository.findVersionById(id).orElseThrow();
+        return new LotteryTicketVersion(versionOf(lotteryTicket), lotteryTicket.getUpdatedDateTime(), lotteryTicket.getStatusEnquired());
+    }
+
+
+    /**
+     * Gets the summary of the results of a ticket. The lines are not loaded, except for tickets
+     * created before summaries were stored.
+     *
+     * @param id the id
+     * @return the ticket summary
+     * @throws AccessDeniedException if the status of the ticket has not been checked, the results are not revealed before
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketSummaryResponse getTicketSummary(String id) throws AccessDeniedException {
+        LotteryTicket lotteryTicket = lotteryRepository.findSummaryById(id).orElseThrow();
+        if (!lotteryTicket.getStatusEnquired()) {
+            throw new AccessDeniedException("Results not available before status check");
+        }
+        TicketSummary summary = lotteryTicket.getSummary();
+        if (summary == null) {
+            summary = TicketSummary.of(lotteryRepository.findById(id).orElseThrow().getPackedLines());
+        }
+        return prepareSummaryResponse(id, summary);
+    }
+
+    /**
+     * Gets a window of the lines of a ticket ordered by result, eg: the top N winning lines.
+     * Only the lines of the ticket are loaded and they are not sorted: the ordering is iterated
+     * lazily up to the end of the window.
+     *
+     * @param id      the id
+     * @param sortDir the sort dir, descending results if not "asc"
+     * @param skip    the number of ordered lines to skip
+     * @param limit   the maximum number of lines to return
+     * @return the lines of the window
+     * @throws AccessDeniedException if the status of the ticket has not been checked, the results are not revealed before
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketLinesResponse getTicketLines(String id, String sortDir, int skip, int limit) throws AccessDeniedException {
+        LotteryTicket lotteryTicket = lotteryRepository.findLinesById(id).orElseThrow();
+        if (!lotteryTicket.getStatusEnquired()) {
+            throw new AccessDeniedException("Results not available before status check");
+        }
+        PackedLines lines = lotteryTicket.getPackedLines();
+        List<Line> window = new ArrayList<>(Math.max(0, Math.min(limit, lines.size() - skip)));
+        PrimitiveIterator.OfInt order = LineSorter.order(lines, "asc".equalsIgnoreCase(sortDir));
+        for (int i = 0; i < skip && order.hasNext(); i++) {
+            order.nextInt();
+        }
+        while (window.size() < limit && order.hasNext()) {
+            window.add(Line.fromCode(lines.codeAt(order.nextInt())));
+        }
+        LotteryTicketLinesResponse linesResponse = new LotteryTicketLinesResponse();
+        linesResponse.setId(id);
+        linesResponse.setLineCount(lines.size());
+        linesResponse.setSkip(skip);
+        linesResponse.setLines(window);
+        return linesResponse;
+    }
+
+    /**
+     * Save ticket
+     *
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket response
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse saveTicket(LotteryTicketRequest ticketRequest) {
+        return saveTicket(ticketRequest, PackedLines.fromNumbers(ticketRequest.getLines()));
+    }
+
+    /**
+     * Save ticket with lines already decoded by the validation of the request.
+     *
+     * @param ticketRequest the ticket request
+     * @param lines         the lines of the request
+     * @return the lottery ticket response
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse saveTicket(LotteryTicketRequest ticketRequest, PackedLines lines) {
+        return insertTicket(prepareLotteryTicketFromRequest(ticketRequest, lines), null);
+    }
+
+    /**
+     * Save ticket once per Idempotency-Key of a user. A retry of the request within the idempotency window is
+     * answered with the ticket created by the first request, without creating another ticket.
+     * The key is reserved in the DB before the ticket is saved, so concurrent retries can not both create a ticket.
+     * The reservation is deleted if the ticket can not be saved, and a reservation whose ticket was not created
+     * within the lease(lottery.idempotency.lease), eg: left by a request that crashed, is taken over by a retry.
+     *
+     * @param ticketRequest  the ticket request
+     * @param lines          the lines of the request
+     * @param idempotencyKey the idempotency key, null to always create a ticket
+     * @return the lottery ticket response, of the ticket created by the first request with the key
+     * @throws IdempotencyKeyConflictException if the key was used for a different request, or the first request with the key is still in progress
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse saveTicket(LotteryTicketRequest ticketRequest, PackedLines lines, String idempotencyKey) throws IdempotencyKeyConflictException {
+        if (idempotencyKey == null) {
+            return saveTicket(ticketRequest, lines);
+        }
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(ticketRequest.getUserId(), idempotencyKey);
+        String fingerprint = IdempotencyRecord.fingerprint(ticketRequest.getUserId(), lines);
+        IdempotencyCache.CreatedTicket createdTicket = idempotencyCache.get(key);
+        if (createdTicket != null) {
+            checkSameRequest(createdTicket.getFingerprint(), fingerprint);
+            return createdTicket.getTicket();
+        }
+        LotteryTicket lotteryTicket = prepareLotteryTicketFromRequest(ticketRequest, lines);
+        lotteryTicket.setId(ticketIdGenerator.nextId());
+        Instant createdAt = lotteryTicket.getCreatedDateTime().toInstant();
+        IdempotencyRecord idempotencyRecord = new IdempotencyRecord(key, fingerprint, lotteryTicket.getId(),
+                Date.from(createdAt.plus(idempotencyCache.getLease())), Date.from(createdAt.plus(idempotencyCache.getTtl())));
+        try {
+            idempotencyRepository.insert(idempotencyRecord);
+        } catch (DuplicateKeyException e) {
+            // Retry of a request already received
+            IdempotencyRecord record = idempotencyRepository.findById(key)
+                    .orElseThrow(() -> new IdempotencyKeyConflictException("Idempotency-Key expired while in use, retry"));
+            checkSameRequest(record.getFingerprint(), fingerprint);
+            Optional<LotteryTicket> existingTicket = lotteryRepository.findById(record.getTicketId());
+            if (existingTicket.isPresent()) {
+                LotteryTicketResponse response = prepareLotteryResponse(existingTicket.get());
+                idempotencyCache.put(key, fingerprint, response);
+                return response;
+            }
+            // The ticket of the first request is not created yet, the key is taken over once its lease has passed
+            if (record.isPending(lotteryTicket.getCreatedDateTime())
+                    || !idempotencyRepository.takeOver(idempotencyRecord, record.getTicketId())) {
+                throw new IdempotencyKeyConflictException("A request with this Idempotency-Key is in progress");
+            }
+        }
+        try {
+            return insertTicket(lotteryTicket, idempotencyRecord);
+        } catch (RuntimeException e) {
+            // Release the key so that the request can be retried, or else its lease lets a retry take it over
+            try {
+                releaseIdempotencyKey(idempotencyRecord);
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Save tickets with a single unordered bulk insert. The ids are assigned before the insert so that
+     * the result of each ticket is known even when other tickets of the batch fail.
+     *
+     * @param ticketRequests the ticket requests, already validated
+     * @return the result of each ticket, in the order of the requests
+     */
+    @Timed(SERVICE_TIMER)
+    public List<LotteryTicketBatchResult> saveTickets(List<LotteryTicketRequest> ticketRequests) {
+        return saveTickets(ticketRequests, ticketRequests.stream()
+                .map(ticketRequest -> PackedLines.fromNumbers(ticketRequest.getLines()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Save tickets with lines already decoded by the validation of the requests.
+     *
+     * @param ticketRequests the ticket requests, already validated
+     * @param lines          the lines of each request
+     * @return the result of each ticket, in the order of the requests
+     * @see #saveTickets(List)
+     */
+    @Timed(SERVICE_TIMER)
+    public List<LotteryTicketBatchResult> saveTickets(List<LotteryTicketRequest> ticketRequests, List<PackedLines> lines) {
+        List<LotteryTicket> lotteryTickets = new ArrayList<>(ticketRequests.size());
+        for (int i = 0; i < ticketRequests.size(); i++) {
+            LotteryTicket lotteryTicket = prepareLotteryTicketFromRequest(ticketRequests.get(i), lines.get(i));
+            lotteryTicket.setId(ticketIdGenerator.nextId());
+            lotteryTickets.add(lotteryTicket);
+        }
+        Map<Integer, String> errors = lotteryRepository.insertAllUnordered(lotteryTickets);
+        List<LotteryTicketBatchResult> results = new ArrayList<>(lotteryTickets.size());
+        for (int i = 0; i < lotteryTickets.size(); i++) {
+            String error = errors.get(i);
+            if (error == null) {
+                lotteryMetrics.recordTicketLines(lines.get(i).size());
+                results.add(LotteryTicketBatchResult.created(i, lotteryTickets.get(i).getId()));
+            } else {
+                results.add(LotteryTicketBatchResult.failed(i, error));
+            }
+        }
+        if (errors.size() < lotteryTickets.size()) {
+            ticketStatsService.recordCreated(lotteryTickets.get(0).getCreatedDateTime(), lotteryTickets.size() - errors.size());
+        }
+        return results;
+    }
+
+    /**
+     * Update ticket lottery
+     *
+     * @param id            the id
+     * @param version       the version of the ticket the update is based on, as last read by the client, or null to
+     *                      update the version read here
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket response
+     * @throws AccessDeniedException            the access denied exception
+     * @throws OptimisticLockingFailureException if the ticket is no longer at the version
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse updateTicket(String id, Long version, LotteryTicketRequest ticketRequest) throws AccessDeniedException {
+        return updateTicket(id, version, ticketRequest, PackedLines.fromNumbers(ticketRequest.getLines()));
+    }
+
+    /**
+     * Update ticket lottery with lines already decoded by the validation of the request.
+     *
+     * @param id            the id
+     * @param version       the version of the ticket the update is based on, as last read by the client, or null to
+     *                      update the version read here
+     * @param ticketRequest the ticket request
+     * @param lines         the lines of the request
+     * @return the lottery ticket response
+     * @throws AccessDeniedException            the access denied exception
+     * @throws OptimisticLockingFailureException if the ticket is no longer at the version
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicketResponse updateTicket(String id, Long version, LotteryTicketRequest ticketRequest, PackedLines lines) throws AccessDeniedException {
+        // The lines are replaced, there is no need to load them
+        LotteryTicket _lotteryTicket = lotteryRepository.findWithoutLinesById(id).orElseThrow();
+        checkTicketIsUpdatable(_lotteryTicket, ticketRequest.getUserId());
+        long readVersion = versionOf(_lotteryTicket);
+        if (version != null && readVersion != version) {
+            throw new OptimisticLockingFailureException("Lottery ticket " + id + " is at version " + readVersion + ", not " + version);
+        }
+        Date updatedDateTime = new Date();
+        if (!lotteryRepository.updateLines(id, readVersion, lines, updatedDateTime)) {
+            // The ticket was deleted, status checked or updated since it was read
+            checkTicketIsUpdatable(lotteryRepository.findWithoutLinesById(id).orElseThrow(), ticketRequest.getUserId());
+            throw new OptimisticLockingFailureException("Lottery ticket " + id + " was updated concurrently");
+        }
+        _lotteryTicket.setPackedLines(lines);
+        _lotteryTicket.setUpdatedDateTime(updatedDateTime);
+        _lotteryTicket.setVersion(readVersion + 1);
+        LotteryTicketResponse response = prepareLotteryResponse(_lotteryTicket);
+        ticketCache.put(response);
+        lotteryMetrics.recordTicketLines(lines.size());
+        ticketStatsService.recordUpdated(updatedDateTime);
+        return response;
+    }
+
+    /**
+     * Update ticket status of the lottery ticket.
+     *
+     * @param id            the id
+     * @param sortDir       the sort dir
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket
+     * @throws AccessDeniedException the access denied exception
+     */
+    @Timed(SERVICE_TIMER)
+    public LotteryTicket updateTicketStatus(String id, String sortDir, LotteryTicketRequest ticketRequest) throws AccessDeniedException {
+        // Single atomic update: concurrent status checks can not both succeed
+        LotteryTicket lotteryTicket = lotteryRepository.markStatusEnquired(id, ticketRequest.getUserId(), new Date());
+        if (lotteryTicket == null) {
+            // Only on failure, find out why the ticket did not match
+            LotteryTicket _lotteryTicket = lotteryRepository.findWithoutLinesById(id).orElseThrow();
+            checkTicketIsUpdatable(_lotteryTicket, ticketRequest.getUserId());
+            throw new AccessDeniedException("Updates not possible after status check");
+        }
+        // The ticket can not change anymore, it stays cached until evicted by size
+        ticketCache.put(prepareLotteryResponse(lotteryTicket));
+        TicketSummary summary = lotteryTicket.getSummary();
+        ticketStatsService.recordStatusChecked(lotteryTicket.getUpdatedDateTime(),
+                summary == null ? TicketSummary.of(lotteryTicket.getPackedLines()) : summary);
+        LotteryTicket sortedTickets = sortTicketsByLines(lotteryTicket, sortDir);
+        return sortedTickets;
+    }
+
+    /**
+     * Is the creation of a ticket acknowledged once the ticket is queued by the write-behind writer, before it is written.
+     *
+     * @return true if saved tickets may not be written yet
+     */
+    public boolean isCreationAcknowledgedOnEnqueue() {
+        return ticketWriteBehind != null && !ticketWriteBehind.isWaitForCommit();
+    }
+
+    /**
+     * Save a new ticket and record it. The id is generated before the ticket is saved, so the response is
+     * prepared from the ticket itself rather than from the saved entity, and the save is an insert(no version yet).
+     * The ticket is cached, and with an idempotency record, cached as the ticket created by its key.
+     */
+    private LotteryTicketResponse insertTicket(LotteryTicket lotteryTicket, IdempotencyRecord idempotencyRecord) {
+        if (lotteryTicket.getId() == null) {
+            lotteryTicket.setId(ticketIdGenerator.nextId());
+        }
+        if (ticketWriteBehind != null) {
+            return enqueueTicket(lotteryTicket, idempotencyRecord);
+        }
+        LotteryTicketResponse response = prepareLotteryResponse(lotteryTicket);
+        lotteryRepository.save(lotteryTicket);
+        cacheCreatedTicket(response, idempotencyRecord);
+        lotteryMetrics.recordTicketLines(lotteryTicket.getPackedLines().size());
+        ticketStatsService.recordCreated(lotteryTicket.getCreatedDateTime(), 1);
+        return response;
+    }
+
+    /**
+     * Queue a new ticket for the write-behind writer, which records it once written.
+     * The ticket is cached once written, or right away when the creation is acknowledged on enqueue
+     * and then evicted if the write fails, releasing its idempotency key so that a retry creates the ticket.
+     */
+    private LotteryTicketResponse enqueueTicket(LotteryTicket lotteryTicket, IdempotencyRecord idempotencyRecord) {
+        LotteryTicketResponse response = prepareLotteryResponse(lotteryTicket);
+        CompletableFuture<Void> committed = ticketWriteBehind.submit(lotteryTicket);
+        if (!ticketWriteBehind.isWaitForCommit()) {
+            cacheCreatedTicket(response, idempotencyRecord);
+            committed.whenComplete((written, e) -> {
+                if (e != null) {
+                    ticketCache.invalidate(response.getId());
+                    if (idempotencyRecord != null) {
+                        releaseIdempotencyKey(idempotencyRecord);
+                    }
+                }
+            });
+            return response;
+        }
+        try {
+            committed.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        cacheCreatedTicket(response, idempotencyRecord);
+        return response;
+    }
+
+    private void cacheCreatedTicket(LotteryTicketResponse response, IdempotencyRecord idempotencyRecord) {
+        ticketCache.put(response);
+        if (idempotencyRecord != null) {
+            idempotencyCache.put(idempotencyRecord.getId(), idempotencyRecord.getFingerprint(), response);
+        }
+    }
+
+    /**
+     * Release an idempotency key whose ticket was not saved, so that the request can be retried.
+     * The key is only deleted if it was not taken over by a retry meanwhile.
+     */
+    private void releaseIdempotencyKey(IdempotencyRecord idempotencyRecord) {
+        idempotencyCache.invalidate(idempotencyRecord.getId());
+        idempotencyRepository.release(idempotencyRecord);
+    }
+
+    /**
+     * Check that a retry with an Idempotency-Key is the request that first used the key.
+     */
+    static void checkSameRequest(String keyFingerprint, String requestFingerprint) throws IdempotencyKeyConflictException {
+        if (!keyFingerprint.equals(requestFingerprint)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key already used for a different request");
+        }
+    }
+
+    /**
+     * Check that the ticket belongs to the user and that its status has not been enquired.
+     * User ids are case sensitive, as in the status check and the tickets of a user.
+     */
+    static void checkTicketIsUpdatable(LotteryTicket lotteryTicket, String userId) throws AccessDeniedException {
+        if (!lotteryTicket.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Access Denied");
+        }
+        if (lotteryTicket.getStatusEnquired()) {
+            throw new AccessDeniedException("Updates not possible after status check");
+        }
+    }
+
+
+    /**
+     * Sort Tickets based on Sort Direction.
+     * If none specified, sorts by descending order.
+     */
+    static LotteryTicket sortTicketsByLines(LotteryTicket lotteryTicket, String sortDir) {
+        lotteryTicket.reorderLines(LineSorter.sort(lotteryTicket.getPackedLines(), "asc".equalsIgnoreCase(sortDir)));
+        return lotteryTicket;
+    }
+
+    /**
+     * Prepare  DB Model (LotteryTicket) based on the incoming request(LotteryTicketRequest)
+     */
+    static LotteryTicket prepareLotteryTicketFromRequest(LotteryTicketRequest ticketRequest) {
+        return prepareLotteryTicketFromRequest(ticketRequest, PackedLines.fromNumbers(ticketRequest.getLines()));
+    }
+
+    /**
+     * Prepare  DB Model (LotteryTicket) based on the incoming request(LotteryTicketRequest) and its decoded lines
+     */
+    static LotteryTicket prepareLotteryTicketFromRequest(LotteryTicketRequest ticketRequest, PackedLines lines) {
+        LotteryTicket lotteryTicket = new LotteryTicket(
+                lines,
+                ticketRequest.getUserId(),
+                new Date(),
+                new Date(),
+                false
+        );
+        return lotteryTicket;
+    }
+
+    /**
+     * Prepare outgoing response(LotteryTicketSummaryResponse) based on the summary of the DB Model(TicketSummary)
+     */
+    static LotteryTicketSummaryResponse prepareSummaryResponse(String id, TicketSummary summary) {
+        LotteryTicketSummaryResponse summaryResponse = new LotteryTicketSummaryResponse();
+        summaryResponse.setId(id);
+        summaryResponse.setLineCount(summary.getLineCount());
+        summaryResponse.setTotalScore(summary.getTotalScore());
+        summaryResponse.setMaxResult(summary.getMaxResult());
+        summaryResponse.setResult0Count(summary.getResult0Count());
+        summaryResponse.setResult1Count(summary.getResult1Count());
+        summaryResponse.setResult5Count(summary.getResult5Count());
+        summaryResponse.setResult10Count(summary.getResult10Count());
+        return summaryResponse;
+    }
+
+    /**
+     * Fields to read from the DB for the selected fields of a ticket. The status enquired and the version are always read.
+     */
+    static Set<String> projectionOf(Set<String> fields) {
+        Set<String> projection = new HashSet<>(fields);
+        projection.add("statusEnquired");
+        projection.add("version");
+        return projection;
+    }
+
+    /**
+     * Keep only the selected fields of an outgoing response. The id, the status enquired and the version are always kept.
+     */
+    static LotteryTicketResponse selectFields(LotteryTicketResponse lotteryTicketResponse, Set<String> fields) {
+        if (fields == null) {
+            return lotteryTicketResponse;
+        }
+        LotteryTicketResponse selectedFields = new LotteryTicketResponse(
+                lotteryTicketResponse.getId(),
+                fields.contains("lines") ? lotteryTicketResponse.getLines() : null,
+                fields.contains("userId") ? lotteryTicketResponse.getUserId() : null,
+                fields.contains("createdDateTime") ? lotteryTicketResponse.getCreatedDateTime() : null,
+                fields.contains("updatedDateTime") ? lotteryTicketResponse.getUpdatedDateTime() : null,
+                lotteryTicketResponse.isStatusEnquired()
+        );
+        selectedFields.setVersion(lotteryTicketResponse.getVersion());
+        return selectedFields;
+    }
+
+    /**
+     * Version of a ticket, tickets created without version are at version 0.
+     */
+    static long versionOf(LotteryTicket lotteryTicket) {
+        return lotteryTicket.getVersion() == null ? 0 : lotteryTicket.getVersion();
+    }
+
+    /**
+     * Prepare outgoing response(LotteryTicketResponse) based on the DB Model(LotteryTicket).
+     * The lines are not set if they were not read.
+     */
+    static LotteryTicketResponse prepareLotteryResponse(LotteryTicket lotteryTicket) {
+        LotteryTicketResponse lotteryTicketResponse = new LotteryTicketResponse(
+                lotteryTicket.getId(),
+                lotteryTicket.getPackedLines() == null ? null : lotteryTicket.getPackedLines().numbers(),
+                lotteryTicket.getUserId(),
+                lotteryTicket.getCreatedDateTime(),
+                lotteryTicket.getUpdatedDateTime(),
+                lotteryTicket.getStatusEnquired()
+        );
+        lotteryTicketResponse.setVersion(versionOf(lotteryTicket));
+        return lotteryTicketResponse;
+    }
+}
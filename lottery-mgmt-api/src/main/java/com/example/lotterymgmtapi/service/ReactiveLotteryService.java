@@ -0,0 +1,257 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.cache.TicketCache;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.ReactiveLotteryRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.AccessDeniedException;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The type Reactive lottery service, used by the reactive execution mode.
+ * It has the same semantics as {@link LotteryService}: failures are signalled with the same exceptions.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveLotteryService {
+
+    @Autowired
+    private ReactiveLotteryRepository reactiveLotteryRepository;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private LotteryMetrics lotteryMetrics;
+
+    @Autowired
+    private TicketIdGenerator ticketIdGenerator;
+
+    @Autowired
+    private TicketStatsService ticketStatsService;
+
+    /**
+     * Gets a page of tickets ordered by id.
+     *
+     * @param pageToken the page token, null for the first page
+     * @param pageSize  the page size
+     * @return the page of tickets
+     * @see LotteryService#getAllTickets(String, int)
+     */
+    public Mono<LotteryTicketPage> getAllTickets(String pageToken, int pageSize) {
+        // One more ticket than requested is read to know if there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+        Flux<LotteryTicket> lotteryTickets;
+        if (pageToken == null) {
+            lotteryTickets = reactiveLotteryRepository.findAllBy(pageable);
+        } else if (ObjectId.isValid(pageToken)) {
+            lotteryTickets = reactiveLotteryRepository.findByIdGreaterThan(pageToken, pageable);
+        } else {
+            return Mono.error(new IllegalArgumentException("Invalid page token: " + pageToken));
+        }
+        return lotteryTickets
+                .map(LotteryService::prepareLotteryResponse)
+                .collectList()
+                .map(responseList -> {
+                    if (responseList.size() > pageSize) {
+                        responseList = responseList.subList(0, pageSize);
+                        return new LotteryTicketPage(responseList, responseList.get(pageSize - 1).getId());
+                    }
+                    return new LotteryTicketPage(responseList, null);
+                });
+    }
+
+    /**
+     * Gets ticket by id.
+     *
+     * @param id the id
+     * @return the ticket, or a NoSuchElementException error
+     */
+    public Mono<LotteryTicketResponse> getTicketById(String id) {
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return Mono.just(cachedTicket);
+        }
+        return reactiveLotteryRepository.findById(id)
+                .switchIfEmpty(Mono.error(NoSuchElementException::new))
+                .map(LotteryService::prepareLotteryResponse)
+                .doOnNext(ticketCache::put);
+    }
+
+    /**
+     * Gets ticket by id, reading only the selected fields. The lines are not loaded unless selected.
+     *
+     * @param id     the id
+     * @param fields the fields of the ticket, see {@link LotteryService#TICKET_FIELDS}, null for all fields
+     * @return the ticket, the fields not selected are not set, or a NoSuchElementException error
+     * @see LotteryService#getTicketById(String, Set)
+     */
+    public Mono<LotteryTicketResponse> getTicketById(String id, Set<String> fields) {
+        if (fields == null || fields.contains("lines")) {
+            return getTicketById(id).map(ticketById -> LotteryService.selectFields(ticketById, fields));
+        }
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return Mono.just(LotteryService.selectFields(cachedTicket, fields));
+        }
+        return reactiveLotteryRepository.findWithoutLinesById(id)
+                .switchIfEmpty(Mono.error(NoSuchElementException::new))
+                .map(lotteryTicket -> LotteryService.selectFields(LotteryService.prepareLotteryResponse(lotteryTicket), fields));
+    }
+
+    /**
+     * Gets the version of a ticket, to answer conditional requests without loading the ticket.
+     *
+     * @param id the id
+     * @return the ticket version, or a NoSuchElementException error
+     * @see LotteryService#getTicketVersionById(String)
+     */
+    public Mono<LotteryTicketVersion> getTicketVersionById(String id) {
+        LotteryTicketResponse cachedTicket = ticketCache.get(id);
+        if (cachedTicket != null) {
+            return Mono.just(new LotteryTicketVersion(cachedTicket.getVersion(), cachedTicket.getUpdatedDateTime(), cachedTicket.isStatusEnquired()));
+        }
+        return reactiveLotteryRepository.findVersionById(id)
+                .switchIfEmpty(Mono.error(NoSuchElementException::new))
+                .map(lotteryTicket -> new LotteryTicketVersion(LotteryService.versionOf(lotteryTicket),
+                        lotteryTicket.getUpdatedDateTime(), lotteryTicket.getStatusEnquired()));
+    }
+
+    /**
+     * Save ticket
+     *
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket response
+     */
+    public Mono<LotteryTicketResponse> saveTicket(LotteryTicketRequest ticketRequest) {
+        return saveTicket(ticketRequest, PackedLines.fromNumbers(ticketRequest.getLines()));
+    }
+
+    /**
+     * Save ticket with lines already decoded by the validation of the request.
+     *
+     * @param ticketRequest the ticket request
+     * @param lines         the lines of the request
+     * @return the lottery ticket response
+     */
+    public Mono<LotteryTicketResponse> saveTicket(LotteryTicketRequest ticketRequest, PackedLines lines) {
+        LotteryTicket lotteryTicket = LotteryService.prepareLotteryTicketFromRequest(ticketRequest, lines);
+        lotteryTicket.setId(ticketIdGenerator.nextId());
+        LotteryTicketResponse response = LotteryService.prepareLotteryResponse(lotteryTicket);
+        return reactiveLotteryRepository.save(lotteryTicket)
+                .thenReturn(response)
+                .doOnNext(ticketCache::put)
+                .doOnNext(created -> lotteryMetrics.recordTicketLines(lines.size()))
+                .doOnNext(created -> ticketStatsService.recordCreated(lotteryTicket.getCreatedDateTime(), 1));
+    }
+
+    /**
+     * Update ticket lottery
+     *
+     * @param id            the id
+     * @param version       the version of the ticket the update is based on, as last read by the client, or null to
+     *                      update the version read here
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket response, or a NoSuchElementException, AccessDeniedException or
+     * OptimisticLockingFailureException error
+     * @see LotteryService#updateTicket(String, Long, LotteryTicketRequest)
+     */
+    public Mono<LotteryTicketResponse> updateTicket(String id, Long version, LotteryTicketRequest ticketRequest) {
+        return updateTicket(id, version, ticketRequest, PackedLines.fromNumbers(ticketRequest.getLines()));
+    }
+
+    /**
+     * Update ticket lottery with lines already decoded by the validation of the request.
+     *
+     * @param id            the id
+     * @param version       the version of the ticket the update is based on, as last read by the client, or null to
+     *                      update the version read here
+     * @param ticketRequest the ticket request
+     * @param lines         the lines of the request
+     * @return the lottery ticket response, or a NoSuchElementException, AccessDeniedException or
+     * OptimisticLockingFailureException error
+     */
+    public Mono<LotteryTicketResponse> updateTicket(String id, Long version, LotteryTicketRequest ticketRequest, PackedLines lines) {
+        Date updatedDateTime = new Date();
+        return findUpdatableTicket(id, ticketRequest.getUserId())
+                .filter(_lotteryTicket -> version == null || LotteryService.versionOf(_lotteryTicket) == version)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException("Lottery ticket " + id + " is not at version " + version)))
+                .flatMap(_lotteryTicket -> {
+                    long readVersion = LotteryService.versionOf(_lotteryTicket);
+                    return reactiveLotteryRepository.updateLines(id, readVersion, lines, updatedDateTime)
+                            .flatMap(updated -> {
+                                if (!updated) {
+                                    // The ticket was deleted, status checked or updated since it was read
+                                    return findUpdatableTicket(id, ticketRequest.getUserId())
+                                            .then(Mono.error(new OptimisticLockingFailureException("Lottery ticket " + id + " was updated concurrently")));
+                                }
+                                _lotteryTicket.setPackedLines(lines);
+                                _lotteryTicket.setUpdatedDateTime(updatedDateTime);
+                                _lotteryTicket.setVersion(readVersion + 1);
+                                return Mono.just(LotteryService.prepareLotteryResponse(_lotteryTicket));
+                            });
+                })
+                .doOnNext(ticketCache::put)
+                .doOnNext(updated -> lotteryMetrics.recordTicketLines(lines.size()))
+                .doOnNext(updated -> ticketStatsService.recordUpdated(updatedDateTime));
+    }
+
+    /**
+     * Update ticket status of the lottery ticket.
+     *
+     * @param id            the id
+     * @param sortDir       the sort dir
+     * @param ticketRequest the ticket request
+     * @return the lottery ticket, or a NoSuchElementException or AccessDeniedException error
+     * @see LotteryService#updateTicketStatus(String, String, LotteryTicketRequest)
+     */
+    public Mono<LotteryTicket> updateTicketStatus(String id, String sortDir, LotteryTicketRequest ticketRequest) {
+        return reactiveLotteryRepository.markStatusEnquired(id, ticketRequest.getUserId(), new Date())
+                // Only on failure, find out why the ticket did not match
+                .switchIfEmpty(Mono.defer(() -> findUpdatableTicket(id, ticketRequest.getUserId())
+                        .then(Mono.error(new AccessDeniedException("Updates not possible after status check")))))
+                .flatMap(lotteryTicket -> {
+                    // The ticket can not change anymore, it stays cached until evicted by size
+                    ticketCache.put(LotteryService.prepareLotteryResponse(lotteryTicket));
+                    TicketSummary summary = lotteryTicket.getSummary() == null
+                            ? TicketSummary.of(lotteryTicket.getPackedLines()) : lotteryTicket.getSummary();
+                    ticketStatsService.recordStatusChecked(lotteryTicket.getUpdatedDateTime(), summary);
+                    return Mono.fromCallable(() -> LotteryService.sortTicketsByLines(lotteryTicket, sortDir));
+                });
+    }
+
+    /**
+     * Find a ticket without its lines, checking that it belongs to the user and that its status has not been enquired.
+     */
+    private Mono<LotteryTicket> findUpdatableTicket(String id, String userId) {
+        return reactiveLotteryRepository.findWithoutLinesById(id)
+                .switchIfEmpty(Mono.error(NoSuchElementException::new))
+                .flatMap(lotteryTicket -> {
+                    try {
+                        LotteryService.checkTicketIsUpdatable(lotteryTicket, userId);
+                        return Mono.just(lotteryTicket);
+                    } catch (AccessDeniedException e) {
+                        return Mono.error(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.lotterymgmtapi.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Generates the ids of new tickets in the service, so that a response can be built before the ticket is written.
+ * <p>
+ * Ids are ObjectIds, whose timestamp(seconds) and counter are assigned here instead of by the driver:
+ * the counter restarts at 0 every second and the timestamp never goes back, even if the clock does,
+ * so the ids generated by an instance are strictly increasing. Ids of different instances differ by
+ * the random value of the process and are ordered by creation time, to the second.
+ */
+@Component
+public class TicketIdGenerator {
+
+    private static final int MAX_COUNTER = 0xFFFFFF;
+
+    private final LongSupplier currentTimeMillis;
+
+    private long timestamp;
+
+    private int counter;
+
+    /**
+     * Instantiates a new Ticket id generator.
+     */
+    public TicketIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TicketIdGenerator(LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Generate the id of a new ticket.
+     *
+     * @return the hex string of an ObjectId greater than any id previously generated
+     */
+    public synchronized String nextId() {
+        long now = currentTimeMillis.getAsLong() / 1000;
+        if (now > timestamp) {
+            timestamp = now;
+            counter = 0;
+        } else if (counter < MAX_COUNTER) {
+            counter++;
+        } else {
+            // More than 16M ids in a second, borrow the next second
+            timestamp++;
+            counter = 0;
+        }
+        return new ObjectId((int) timestamp, counter).toHexString();
+    }
+}
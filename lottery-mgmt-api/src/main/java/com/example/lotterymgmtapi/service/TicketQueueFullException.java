@@ -0,0 +1,17 @@
+package com.example.lotterymgmtapi.service;
+
+/**
+ * Thrown when a created ticket can not be queued for the write-behind writer because its queue is full.
+ * The ticket was not saved and the request can be retried.
+ */
+public class TicketQueueFullException extends RuntimeException {
+
+    /**
+     * Instantiates a new Ticket queue full exception.
+     *
+     * @param message the message
+     */
+    public TicketQueueFullException(String message) {
+        super(message);
+    }
+}
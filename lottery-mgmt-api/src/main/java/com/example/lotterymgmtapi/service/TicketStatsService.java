@@ -0,0 +1,220 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.entity.TicketStatsResponse;
+import com.example.lotterymgmtapi.model.TicketStats;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.TicketStatsRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the tickets per hour or per day.
+ * <p>
+ * Every ticket operation increments in-memory counters of its hour, without any DB call. The counters are
+ * flushed every lottery.stats.flush-interval(default 1s), and when the application stops, with a single upsert
+ * per hour, so reading the statistics of a range costs one document per hour of the range whatever the number
+ * of tickets. The statistics are best effort: a failed flush is logged and its counts are retried with the next
+ * flush, the counts not yet flushed are lost if the process dies. Hours and days are in UTC.
+ */
+@Service
+public class TicketStatsService {
+
+    Logger logger = LoggerFactory.getLogger(TicketStatsService.class);
+
+    @Autowired
+    private TicketStatsRepository ticketStatsRepository;
+
+    private final ConcurrentMap<Date, PendingStats> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Count created tickets.
+     *
+     * @param createdDateTime the created date time of the tickets
+     * @param ticketCount     the number of tickets created
+     */
+    public void recordCreated(Date createdDateTime, int ticketCount) {
+        pendingOf(createdDateTime).ticketsCreated.add(ticketCount);
+    }
+
+    /**
+     * Count an updated ticket.
+     *
+     * @param updatedDateTime the updated date time of the ticket
+     */
+    public void recordUpdated(Date updatedDateTime) {
+        pendingOf(updatedDateTime).ticketsUpdated.increment();
+    }
+
+    /**
+     * Count a ticket whose status was checked, with its lines and their results.
+     *
+     * @param updatedDateTime the date time of the status check
+     * @param summary         the summary of the lines of the ticket
+     */
+    public void recordStatusChecked(Date updatedDateTime, TicketSummary summary) {
+        PendingStats stats = pendingOf(updatedDateTime);
+        stats.ticketsChecked.increment();
+        stats.linesPlayed.add(summary.getLineCount());
+        stats.totalScore.add(summary.getTotalScore());
+        stats.result0Count.add(summary.getResult0Count());
+        stats.result1Count.add(summary.getResult1Count());
+        stats.result5Count.add(summary.getResult5Count());
+        stats.result10Count.add(summary.getResult10Count());
+    }
+
+    /**
+     * Write the counts recorded since the last flush, with one upsert per hour. The hours before the current one
+     * are forgotten once they have nothing left to write.
+     */
+    @Scheduled(fixedDelayString = "${lottery.stats.flush-interval:PT1S}")
+    @PreDestroy
+    public void flush() {
+        Date currentHour = hourOf(new Date());
+        for (Map.Entry<Date, PendingStats> entry : pending.entrySet()) {
+            PendingStats stats = entry.getValue();
+            TicketStats increment = stats.drain(entry.getKey());
+            if (increment == null) {
+                if (entry.getKey().before(currentHour)) {
+                    pending.remove(entry.getKey(), stats);
+                }
+                continue;
+            }
+            try {
+                ticketStatsRepository.increment(increment);
+            } catch (DataAccessException e) {
+                logger.warn("Ticket stats of " + increment.getPeriod().toInstant() + " not updated, retried with the next flush", e);
+                stats.add(increment);
+            }
+        }
+    }
+
+    /**
+     * Gets the statistics of the hours or days of a range. Periods without any activity are not returned.
+     *
+     * @param from the start of the range, rounded down to the start of its period
+     * @param to   the end of the range, exclusive
+     * @param unit the period, {@link ChronoUnit#HOURS} or {@link ChronoUnit#DAYS}
+     * @return the statistics of each period with activity, ordered by period
+     */
+    @Timed(LotteryService.SERVICE_TIMER)
+    public List<TicketStatsResponse> getStats(Date from, Date to, ChronoUnit unit) {
+        Date start = Date.from(from.toInstant().truncatedTo(unit));
+        List<TicketStatsResponse> responseList = new ArrayList<>();
+        TicketStats current = null;
+        for (TicketStats hour : ticketStatsRepository.findByPeriodGreaterThanEqualAndPeriodLessThanOrderByPeriod(start, to)) {
+            Date period = Date.from(hour.getPeriod().toInstant().truncatedTo(unit));
+            if (current == null || !current.getPeriod().equals(period)) {
+                if (current != null) {
+                    responseList.add(prepareStatsResponse(current, unit));
+                }
+                current = new TicketStats(period);
+            }
+            current.add(hour);
+        }
+        if (current != null) {
+            responseList.add(prepareStatsResponse(current, unit));
+        }
+        return responseList;
+    }
+
+    private PendingStats pendingOf(Date dateTime) {
+        return pending.computeIfAbsent(hourOf(dateTime), hour -> new PendingStats());
+    }
+
+    /**
+     * Gets the start of the hour of a date time.
+     */
+    static Date hourOf(Date dateTime) {
+        return Date.from(dateTime.toInstant().truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /**
+     * Prepare outgoing response(TicketStatsResponse) based on the DB Model(TicketStats)
+     */
+    static TicketStatsResponse prepareStatsResponse(TicketStats stats, ChronoUnit unit) {
+        Instant periodStart = stats.getPeriod().toInstant();
+        TicketStatsResponse statsResponse = new TicketStatsResponse();
+        statsResponse.setPeriodStart(stats.getPeriod());
+        statsResponse.setPeriodEnd(Date.from(periodStart.plus(1, unit)));
+        statsResponse.setTicketsCreated(stats.getTicketsCreated());
+        statsResponse.setTicketsUpdated(stats.getTicketsUpdated());
+        statsResponse.setTicketsChecked(stats.getTicketsChecked());
+        statsResponse.setLinesPlayed(stats.getLinesPlayed());
+        statsResponse.setTotalScore(stats.getTotalScore());
+        statsResponse.setResult0Count(stats.getResult0Count());
+        statsResponse.setResult1Count(stats.getResult1Count());
+        statsResponse.setResult5Count(stats.getResult5Count());
+        statsResponse.setResult10Count(stats.getResult10Count());
+        return statsResponse;
+    }
+
+    /**
+     * The counts of an hour not flushed yet. Recording threads only add to the counters, the flush takes and
+     * resets each counter atomically, so no count is lost between two flushes.
+     */
+    static final class PendingStats {
+        final LongAdder ticketsCreated = new LongAdder();
+        final LongAdder ticketsUpdated = new LongAdder();
+        final LongAdder ticketsChecked = new LongAdder();
+        final LongAdder linesPlayed = new LongAdder();
+        final LongAdder totalScore = new LongAdder();
+        final LongAdder result0Count = new LongAdder();
+        final LongAdder result1Count = new LongAdder();
+        final LongAdder result5Count = new LongAdder();
+        final LongAdder result10Count = new LongAdder();
+
+        /**
+         * Take the counts recorded so far, resetting the counters.
+         *
+         * @param hour the hour of the counts
+         * @return the counts, null if nothing was recorded
+         */
+        TicketStats drain(Date hour) {
+            TicketStats stats = new TicketStats(hour);
+            stats.setTicketsCreated(ticketsCreated.sumThenReset());
+            stats.setTicketsUpdated(ticketsUpdated.sumThenReset());
+            stats.setTicketsChecked(ticketsChecked.sumThenReset());
+            stats.setLinesPlayed(linesPlayed.sumThenReset());
+            stats.setTotalScore(totalScore.sumThenReset());
+            stats.setResult0Count(result0Count.sumThenReset());
+            stats.setResult1Count(result1Count.sumThenReset());
+            stats.setResult5Count(result5Count.sumThenReset());
+            stats.setResult10Count(result10Count.sumThenReset());
+            boolean empty = stats.getTicketsCreated() == 0 && stats.getTicketsUpdated() == 0 && stats.getTicketsChecked() == 0;
+            return empty ? null : stats;
+        }
+
+        /**
+         * Add back counts that could not be written.
+         *
+         * @param stats the counts
+         */
+        void add(TicketStats stats) {
+            ticketsCreated.add(stats.getTicketsCreated());
+            ticketsUpdated.add(stats.getTicketsUpdated());
+            ticketsChecked.add(stats.getTicketsChecked());
+            linesPlayed.add(stats.getLinesPlayed());
+            totalScore.add(stats.getTotalScore());
+            result0Count.add(stats.getResult0Count());
+            result1Count.add(stats.getResult1Count());
+            result5Count.add(stats.getResult5Count());
+            result10Count.add(stats.getResult10Count());
+        }
+    }
+}
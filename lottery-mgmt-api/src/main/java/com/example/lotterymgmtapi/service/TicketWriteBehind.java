@@ -0,0 +1,262 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.repository.LotteryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind writer of the created tickets. Tickets are queued in a bounded queue and a background thread
+ * drains the queue into unordered bulk inserts of up to batch-size tickets, written as soon as a batch is full
+ * or max-delay after its first ticket was queued.
+ * <p>
+ * A ticket is rejected with a {@link TicketQueueFullException} when the queue is full. When the application stops,
+ * the queued tickets are written before the writer ends. Only active when lottery.write-behind.enabled is true.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lottery.write-behind", name = "enabled", havingValue = "true")
+public class TicketWriteBehind implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketWriteBehind.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final LotteryRepository lotteryRepository;
+
+    private final LotteryMetrics lotteryMetrics;
+
+    private final TicketStatsService ticketStatsService;
+
+    private final BlockingQueue<PendingTicket> queue;
+
+    private final int batchSize;
+
+    private final Duration maxDelay;
+
+    private final boolean waitForCommit;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    /**
+     * Instantiates a new Ticket write behind.
+     *
+     * @param lotteryRepository  the lottery repository
+     * @param lotteryMetrics     the lottery metrics
+     * @param ticketStatsService the ticket stats service
+     * @param queueCapacity      the maximum number of tickets waiting to be written
+     * @param batchSize          the maximum number of tickets per bulk insert
+     * @param maxDelay           the maximum time the first ticket of a batch waits for the batch to fill
+     * @param waitForCommit      true if the requests wait until their ticket is written, false if they are answered once it is queued
+     */
+    @Autowired
+    public TicketWriteBehind(LotteryRepository lotteryRepository,
+                             LotteryMetrics lotteryMetrics,
+                             TicketStatsService ticketStatsService,
+                             @Value("${lottery.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${lottery.write-behind.batch-size:500}") int batchSize,
+                             @Value("${lottery.write-behind.max-delay:20ms}") Duration maxDelay,
+                             @Value("${lottery.write-behind.wait-for-commit:true}") boolean waitForCommit) {
+        this.lotteryRepository = lotteryRepository;
+        this.lotteryMetrics = lotteryMetrics;
+        this.ticketStatsService = ticketStatsService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.waitForCommit = waitForCommit;
+    }
+
+    /**
+     * Queue a new ticket to be written. The id of the ticket must already be assigned.
+     *
+     * @param lotteryTicket the ticket
+     * @return a future completed once the ticket is written, or exceptionally if the write failed
+     * @throws TicketQueueFullException if the queue is full
+     */
+    public CompletableFuture<Void> submit(LotteryTicket lotteryTicket) {
+        PendingTicket pendingTicket = new PendingTicket(lotteryTicket);
+        if (!queue.offer(pendingTicket)) {
+            throw new TicketQueueFullException("Ticket queue is full, retry later");
+        }
+        return pendingTicket.committed;
+    }
+
+    /**
+     * Is wait for commit.
+     *
+     * @return true if the requests wait until their ticket is written, false if they are answered once it is queued
+     */
+    public boolean isWaitForCommit() {
+        return waitForCommit;
+    }
+
+    /**
+     * Gets the number of tickets waiting to be written.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        writer = new Thread(this::run, "ticket-write-behind");
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so that no request queues a ticket once the writer has stopped.
+     *
+     * @return the phase of the writer
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    /**
+     * Publish the number of tickets waiting to be written(lottery.write.behind.queue.size).
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lottery.write.behind.queue.size", this, TicketWriteBehind::getQueueSize)
+                .description("Created tickets waiting to be written")
+                .register(registry);
+    }
+
+    /**
+     * Write batches until the writer is stopped and the queue is empty.
+     */
+    private void run() {
+        List<PendingTicket> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (nextBatch(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                logger.warn("Ticket writer interrupted, " + queue.size() + " tickets still queued");
+            } catch (RuntimeException e) {
+                logger.error("Ticket writer failed", e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Take the next batch from the queue: the first ticket queued, followed by the tickets queued until
+     * the batch is full or max-delay has elapsed.
+     *
+     * @param batch the list to add the tickets of the batch to
+     * @return false if no ticket was queued within the poll timeout
+     * @throws InterruptedException if interrupted while waiting for tickets
+     */
+    boolean nextBatch(List<PendingTicket> batch) throws InterruptedException {
+        PendingTicket first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0) {
+                break;
+            }
+            PendingTicket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    /**
+     * Write a batch with a single unordered bulk insert, record the tickets written and complete their futures.
+     *
+     * @param batch the tickets of the batch
+     */
+    void write(List<PendingTicket> batch) {
+        List<LotteryTicket> lotteryTickets = new ArrayList<>(batch.size());
+        for (PendingTicket pendingTicket : batch) {
+            lotteryTickets.add(pendingTicket.lotteryTicket);
+        }
+        Map<Integer, String> errors;
+        try {
+            errors = lotteryRepository.insertAllUnordered(lotteryTickets);
+        } catch (RuntimeException e) {
+            logger.error("Failed to write a batch of " + batch.size() + " tickets", e);
+            for (PendingTicket pendingTicket : batch) {
+                pendingTicket.committed.completeExceptionally(e);
+            }
+            return;
+        }
+        if (errors.size() < batch.size()) {
+            ticketStatsService.recordCreated(lotteryTickets.get(0).getCreatedDateTime(), batch.size() - errors.size());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String error = errors.get(i);
+            if (error == null) {
+                lotteryMetrics.recordTicketLines(lotteryTickets.get(i).getPackedLines().size());
+                batch.get(i).committed.complete(null);
+            } else {
+                logger.error("Failed to write ticket " + lotteryTickets.get(i).getId() + ": " + error);
+                batch.get(i).committed.completeExceptionally(new DataIntegrityViolationException(error));
+            }
+        }
+    }
+
+    /**
+     * A queued ticket and the future completed once it is written.
+     */
+    static final class PendingTicket {
+        private final LotteryTicket lotteryTicket;
+
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        PendingTicket(LotteryTicket lotteryTicket) {
+            this.lotteryTicket = lotteryTicket;
+        }
+    }
+}
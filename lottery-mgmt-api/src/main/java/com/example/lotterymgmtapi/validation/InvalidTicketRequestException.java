@@ -0,0 +1,29 @@
+package com.example.lotterymgmtapi.validation;
+
+/**
+ * Thrown when the body of a lottery ticket request is rejected while it is being read.
+ */
+public class InvalidTicketRequestException extends Exception {
+
+    private final Integer lineIndex;
+
+    /**
+     * Instantiates a new Invalid ticket request exception.
+     *
+     * @param message   the reason the request is invalid
+     * @param lineIndex the index of the first invalid line, null if the error is not about a line
+     */
+    public InvalidTicketRequestException(String message, Integer lineIndex) {
+        super(message);
+        this.lineIndex = lineIndex;
+    }
+
+    /**
+     * Gets the index of the first invalid line.
+     *
+     * @return the line index, null if the error is not about a line
+     */
+    public Integer getLineIndex() {
+        return lineIndex;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.model.PackedLines;
+
+/**
+ * The result of the validation of the lines of a lottery ticket request.
+ */
+public final class LineValidationResult {
+
+    /**
+     * Invalid index reported when there are no lines.
+     */
+    public static final int NO_LINES = -1;
+
+    private final PackedLines lines;
+
+    private final int invalidIndex;
+
+    private LineValidationResult(PackedLines lines, int invalidIndex) {
+        this.lines = lines;
+        this.invalidIndex = invalidIndex;
+    }
+
+    static LineValidationResult valid(PackedLines lines) {
+        return new LineValidationResult(lines, 0);
+    }
+
+    static LineValidationResult invalid(int invalidIndex) {
+        return new LineValidationResult(null, invalidIndex);
+    }
+
+    static LineValidationResult empty() {
+        return new LineValidationResult(null, NO_LINES);
+    }
+
+    /**
+     * Check if all lines are valid.
+     *
+     * @return true if valid
+     */
+    public boolean isValid() {
+        return lines != null;
+    }
+
+    /**
+     * Gets the packed lines.
+     *
+     * @return the lines, null if invalid
+     */
+    public PackedLines getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the index of the first invalid line.
+     *
+     * @return the index, {@link #NO_LINES} if there are no lines
+     */
+    public int getInvalidIndex() {
+        return invalidIndex;
+    }
+
+    /**
+     * Gets the reason the lines are invalid.
+     *
+     * @return the message, null if valid
+     */
+    public String getMessage() {
+        if (isValid()) {
+            return null;
+        }
+        if (invalidIndex == NO_LINES) {
+            return "At least one lottery line is required";
+        }
+        return "Lottery line at index " + invalidIndex + " is invalid. Should only contain 3 digits 0,1 and 2";
+    }
+}
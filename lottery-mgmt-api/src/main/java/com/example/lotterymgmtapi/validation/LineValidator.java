@@ -0,0 +1,39 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.engine.ResultEngine;
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Validates the lines of a lottery ticket request.
+ * <p>
+ * Each line is checked with a single pass over its characters, no regex or intermediate String is used.
+ * The base-3 code of each line is computed on the way, so a valid request does not need to be parsed again.
+ */
+@Component
+public class LineValidator {
+
+    /**
+     * Validate lines. There must be at least one line and each line should only have 3 numbers in range 0 - 2.
+     *
+     * @param lines the lines, eg: ["000", "012"]
+     * @return the packed lines if all lines are valid, otherwise the index of the first invalid line
+     */
+    public LineValidationResult validate(List<String> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return LineValidationResult.empty();
+        }
+        byte[] codes = new byte[lines.size()];
+        int i = 0;
+        for (String line : lines) {
+            int code = ResultEngine.encode(line);
+            if (code == ResultEngine.INVALID) {
+                return LineValidationResult.invalid(i);
+            }
+            codes[i++] = (byte) code;
+        }
+        return LineValidationResult.valid(PackedLines.fromCodes(codes));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.model.PackedLines;
+
+/**
+ * A lottery ticket request read by {@link TicketRequestReader}, with its lines already validated and encoded.
+ */
+public final class ParsedTicketRequest {
+
+    private final String userId;
+
+    private final PackedLines lines;
+
+    ParsedTicketRequest(String userId, PackedLines lines) {
+        this.userId = userId;
+        this.lines = lines;
+    }
+
+    /**
+     * Gets user id.
+     *
+     * @return the user id, null if absent
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the packed lines.
+     *
+     * @return the lines
+     */
+    public PackedLines getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the equivalent ticket request. Its lines are a view of the packed lines, no String is allocated per line.
+     *
+     * @return the ticket request
+     */
+    public LotteryTicketRequest toRequest() {
+        return new LotteryTicketRequest(lines.numbers(), userId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.engine.ResultEngine;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads the JSON body of a lottery ticket request token by token.
+ * <p>
+ * Unlike binding the body to a {@link com.example.lotterymgmtapi.entity.LotteryTicketRequest}, no String is
+ * allocated per line: each line is validated and encoded straight from the parser's text buffer into a byte
+ * per line. The request is rejected as soon as an invalid line is read or the maximum number of lines is
+ * exceeded, without reading the rest of the body.
+ */
+@Component
+public class TicketRequestReader {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final JsonFactory jsonFactory;
+
+    private final int maxLines;
+
+    /**
+     * Instantiates a new Ticket request reader.
+     *
+     * @param mapper   the object mapper of the application, its factory creates the parsers
+     * @param maxLines the maximum number of lines on a ticket
+     */
+    @Autowired
+    public TicketRequestReader(ObjectMapper mapper, @Value("${lottery.ticket.max-lines:100000}") int maxLines) {
+        this.jsonFactory = mapper.getFactory();
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Get the maximum number of lines on a ticket.
+     *
+     * @return the maximum number of lines
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Read a ticket request. Unknown fields are ignored.
+     *
+     * @param body the JSON body, eg: {"userId": "user1", "lines": ["000", "012"]}
+     * @return the ticket request
+     * @throws InvalidTicketRequestException if the body is malformed, has no lines, too many lines or an invalid line
+     * @throws IOException                   if the body cannot be read
+     */
+    public ParsedTicketRequest read(InputStream body) throws InvalidTicketRequestException, IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidTicketRequestException("Request body should be a JSON object", null);
+            }
+            String userId = null;
+            byte[] codes = null;
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("userId".equals(field)) {
+                    userId = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                    if (userId == null && token != JsonToken.VALUE_NULL) {
+                        throw new InvalidTicketRequestException("userId should be a string", null);
+                    }
+                } else if ("lines".equals(field) && token == JsonToken.START_ARRAY) {
+                    codes = new byte[INITIAL_CAPACITY];
+                    count = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (count == maxLines) {
+                            throw new InvalidTicketRequestException("A ticket should have at most " + maxLines + " lines", null);
+                        }
+                        int code = parser.currentToken() == JsonToken.VALUE_STRING
+                                ? ResultEngine.encode(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())
+                                : ResultEngine.INVALID;
+                        if (code == ResultEngine.INVALID) {
+                            throw new InvalidTicketRequestException(LineValidationResult.invalid(count).getMessage(), count);
+                        }
+                        if (count == codes.length) {
+                            codes = Arrays.copyOf(codes, Math.min(codes.length * 2, maxLines));
+                        }
+                        codes[count++] = (byte) code;
+                    }
+                } else if ("lines".equals(field) && token == JsonToken.VALUE_NULL) {
+                    codes = null;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (codes == null || count == 0) {
+                throw new InvalidTicketRequestException(LineValidationResult.empty().getMessage(), null);
+            }
+            return new ParsedTicketRequest(userId, PackedLines.fromCodes(Arrays.copyOf(codes, count)));
+        } catch (JsonProcessingException e) {
+            throw new InvalidTicketRequestException("Malformed request body", null);
+        }
+    }
+}
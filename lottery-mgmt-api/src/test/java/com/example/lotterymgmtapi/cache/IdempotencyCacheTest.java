@@ -0,0 +1,44 @@
+package com.example.lotterymgmtapi.cache;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache(100, Duration.ofHours(24), Duration.ofSeconds(30), nanos::get);
+
+    private final IdempotencyRecord.Key key1 = new IdempotencyRecord.Key("user1", "key1");
+
+    @Test
+    public void testGetAndPut() {
+        LotteryTicketResponse ticket = new LotteryTicketResponse();
+        ticket.setId("id1");
+        assertNull(idempotencyCache.get(key1));
+
+        idempotencyCache.put(key1, "fingerprint1", ticket);
+        assertSame(idempotencyCache.get(key1).getTicket(), ticket);
+        assertEquals(idempotencyCache.get(key1).getFingerprint(), "fingerprint1");
+        assertNull(idempotencyCache.get(new IdempotencyRecord.Key("user2", "key1")));
+
+        idempotencyCache.invalidate(new IdempotencyRecord.Key("user1", "key1"));
+        assertNull(idempotencyCache.get(key1));
+    }
+
+    @Test
+    public void testKeyExpiresWithIdempotencyWindow() {
+        idempotencyCache.put(key1, "fingerprint1", new LotteryTicketResponse());
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(23));
+        assertNotNull(idempotencyCache.get(key1));
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(2));
+        assertNull(idempotencyCache.get(key1));
+    }
+}
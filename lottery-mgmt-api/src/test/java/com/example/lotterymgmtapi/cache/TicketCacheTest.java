@@ -0,0 +1,98 @@
+package com.example.lotterymgmtapi.cache;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private TicketCache ticketCache;
+
+    @BeforeEach
+    public void setUp() {
+        ticketCache = new TicketCache(100, Duration.ofMinutes(10), nanos::get);
+    }
+
+    @Test
+    public void testGetPutAndInvalidate() {
+        LotteryTicketResponse ticket = ticket("id1", false);
+        assertNull(ticketCache.get("id1"));
+
+        ticketCache.put(ticket);
+        assertSame(ticketCache.get("id1"), ticket);
+
+        ticketCache.invalidate("id1");
+        assertNull(ticketCache.get("id1"));
+
+        assertEquals(ticketCache.stats().hitCount(), 1);
+        assertEquals(ticketCache.stats().missCount(), 2);
+    }
+
+    @Test
+    public void testTicketExpiresAfterTtl() {
+        ticketCache.put(ticket("id1", false));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertNull(ticketCache.get("id1"));
+    }
+
+    @Test
+    public void testStatusEnquiredTicketIsPinned() {
+        ticketCache.put(ticket("id1", false));
+        ticketCache.put(ticket("id1", true));
+        nanos.addAndGet(TimeUnit.DAYS.toNanos(365));
+        assertNotNull(ticketCache.get("id1"));
+    }
+
+    @Test
+    public void testLateReaderDoesNotBringBackOlderVersion() {
+        // A reader reads version 1 from the DB, a writer updates the ticket to version 2 and caches it,
+        // then the reader caches the version it read
+        LotteryTicketResponse read = ticket("id1", false, 1L);
+        LotteryTicketResponse updated = ticket("id1", false, 2L);
+        ticketCache.put(updated);
+        ticketCache.put(read);
+        assertSame(ticketCache.get("id1"), updated);
+
+        LotteryTicketResponse updatedAgain = ticket("id1", false, 3L);
+        ticketCache.put(updatedAgain);
+        assertSame(ticketCache.get("id1"), updatedAgain);
+    }
+
+    @Test
+    public void testStatusEnquiredTicketIsNeverReplaced() {
+        // A reader reads the ticket before its status check and caches it after the status checked ticket
+        LotteryTicketResponse statusChecked = ticket("id1", true, 2L);
+        ticketCache.put(statusChecked);
+        ticketCache.put(ticket("id1", false, 1L));
+        ticketCache.put(ticket("id1", false, 3L));
+        assertSame(ticketCache.get("id1"), statusChecked);
+        nanos.addAndGet(TimeUnit.DAYS.toNanos(365));
+        assertSame(ticketCache.get("id1"), statusChecked);
+    }
+
+    @Test
+    public void testTicketWithoutIdIsNotCached() {
+        ticketCache.put(ticket(null, false));
+        assertEquals(ticketCache.size(), 0);
+    }
+
+    private LotteryTicketResponse ticket(String id, boolean statusEnquired) {
+        return ticket(id, statusEnquired, 0L);
+    }
+
+    private LotteryTicketResponse ticket(String id, boolean statusEnquired, Long version) {
+        LotteryTicketResponse ticket = new LotteryTicketResponse(id, List.of("000"), "user1", new Date(), new Date(), statusEnquired);
+        ticket.setVersion(version);
+        return ticket;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.lotterymgmtapi.config;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.TicketStats;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.HashedIndex;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.ShardKey;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class MongoShardingInitializerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private MongoDatabase adminDatabase;
+
+    @Mock
+    private MongoDatabaseFactory mongoDatabaseFactory;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private MongoShardingInitializer mongoShardingInitializer;
+
+    private final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+
+    @Test
+    public void testLotteryTicketShardKey() {
+        ShardKey shardKey = converter.getMappingContext().getRequiredPersistentEntity(LotteryTicket.class).getShardKey();
+        assertTrue(shardKey.isSharded());
+        assertTrue(shardKey.isImmutable());
+        assertEquals(shardKey.getPropertyNames(), List.of("_id"));
+        assertEquals(MongoShardingInitializer.shardKeyOf(shardKey), new Document("_id", "hashed"));
+    }
+
+    @Test
+    public void testShardCollection() {
+        given(mongoTemplate.getConverter()).willReturn(converter);
+        given(mongoTemplate.getDb()).willReturn(database);
+        given(database.getName()).willReturn("lottery_db");
+        given(mongoTemplate.getCollectionName(LotteryTicket.class)).willReturn("lotteryTicket");
+        given(mongoTemplate.indexOps(LotteryTicket.class)).willReturn(indexOperations);
+        given(mongoTemplate.getMongoDbFactory()).willReturn(mongoDatabaseFactory);
+        given(mongoDatabaseFactory.getMongoDatabase("admin")).willReturn(adminDatabase);
+
+        mongoShardingInitializer.afterPropertiesSet();
+
+        ArgumentCaptor<HashedIndex> index = ArgumentCaptor.forClass(HashedIndex.class);
+        verify(indexOperations).ensureIndex(index.capture());
+        assertEquals(index.getValue().getIndexKeys(), new Document("_id", "hashed"));
+
+        ArgumentCaptor<Document> commands = ArgumentCaptor.forClass(Document.class);
+        verify(adminDatabase, times(2)).runCommand(commands.capture());
+        assertEquals(commands.getAllValues(), List.of(
+                new Document("enableSharding", "lottery_db"),
+                new Document("shardCollection", "lottery_db.lotteryTicket").append("key", new Document("_id", "hashed"))));
+    }
+
+    @Test
+    public void testShardCollectionWithoutShardKey() {
+        given(mongoTemplate.getConverter()).willReturn(converter);
+
+        assertThrows(IllegalArgumentException.class, () -> mongoShardingInitializer.shardCollection(TicketStats.class));
+        verify(mongoTemplate, times(0)).indexOps(any(Class.class));
+    }
+}
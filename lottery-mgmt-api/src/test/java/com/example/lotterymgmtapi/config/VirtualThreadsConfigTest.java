@@ -0,0 +1,54 @@
+package com.example.lotterymgmtapi.config;
+
+import com.example.lotterymgmtapi.LotteryMgmtApiApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadsConfigTest {
+
+    @Test
+    public void testVirtualThreadsProfile() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21 or later");
+        ExecutorService executor;
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) virtualThreadsApplication().run()) {
+            executor = context.getBean("virtualThreadExecutor", ExecutorService.class);
+            TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+            assertSame(webServer.getTomcat().getConnector().getProtocolHandler().getExecutor(), executor);
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertEquals(Thread.class.getMethod("isVirtual").invoke(thread), true);
+        }
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    public void testVirtualThreadsProfileBeforeJava21() {
+        assumeTrue(Runtime.version().feature() < 21, "virtual threads are available");
+        Exception exception = assertThrows(Exception.class, () -> virtualThreadsApplication().run().close());
+        assertTrue(NestedExceptionUtils.getMostSpecificCause(exception) instanceof NoSuchMethodException);
+        assertTrue(String.valueOf(profileErrorOf(exception)).contains("needs Java 21 or later"));
+    }
+
+    private static SpringApplicationBuilder virtualThreadsApplication() {
+        return new SpringApplicationBuilder(LotteryMgmtApiApplication.class)
+                .profiles("virtual-threads")
+                .properties("server.port=0", "spring.data.mongodb.auto-index-creation=false");
+    }
+
+    private static String profileErrorOf(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalStateException && cause.getMessage() != null
+                    && cause.getMessage().startsWith("The virtual-threads profile")) {
+                return cause.getMessage();
+            }
+        }
+        return null;
+    }
+}
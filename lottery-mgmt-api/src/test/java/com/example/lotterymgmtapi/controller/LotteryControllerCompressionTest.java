@@ -0,0 +1,73 @@
+package com.example.lotterymgmtapi.controller;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.service.LotteryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.data.mongodb.auto-index-creation=false")
+public class LotteryControllerCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private LotteryService lotteryService;
+
+    @Test
+    public void testLargeTicketIsGzipCompressed() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add(i % 2 == 0 ? "000" : "012");
+        }
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", lines, "user1", new Date(), new Date(), false);
+        response.setVersion(3L);
+        when(lotteryService.getTicketById("id1", null)).thenReturn(response);
+
+        HttpResponse<byte[]> gzipped = get("id1", "gzip");
+        assertEquals(gzipped.statusCode(), 200);
+        assertEquals(gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null), "gzip");
+        assertEquals(gzipped.headers().firstValue(HttpHeaders.ETAG).orElse(null), "W/\"3\"");
+        String body = gunzip(gzipped.body());
+        assertTrue(body.contains("\"id\":\"id1\""));
+
+        HttpResponse<byte[]> identity = get("id1", "identity");
+        assertTrue(identity.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+        assertEquals(new String(identity.body(), StandardCharsets.UTF_8), body);
+        assertTrue(gzipped.body().length < identity.body().length);
+    }
+
+    private HttpResponse<byte[]> get(String id, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/lotteryapi/v1/ticket/" + id))
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
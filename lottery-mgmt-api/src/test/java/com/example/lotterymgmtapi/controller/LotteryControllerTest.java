@@ -0,0 +1,932 @@
+package com.example.lotterymgmtapi.controller;
+
+import com.example.lotterymgmtapi.entity.LotteryTicketBatchResult;
+import com.example.lotterymgmtapi.entity.LotteryTicketLinesResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketSummaryResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.entity.TicketStatsResponse;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.repository.RepositoryConcurrencyLimitException;
+import com.example.lotterymgmtapi.service.IdempotencyKeyConflictException;
+import com.example.lotterymgmtapi.service.LotteryService;
+import com.example.lotterymgmtapi.service.TicketQueueFullException;
+import com.example.lotterymgmtapi.service.TicketStatsService;
+import com.example.lotterymgmtapi.validation.LineValidator;
+import com.example.lotterymgmtapi.validation.TicketRequestReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.AccessDeniedException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LotteryController.class)
+@Import({LineValidator.class, TicketRequestReader.class})
+public class LotteryControllerTest {
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LotteryService lotteryService;
+
+    @MockBean
+    private LotteryMetrics lotteryMetrics;
+
+    @MockBean
+    private TicketStatsService ticketStatsService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    public void testGetAllTicketsValidScenario() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setCreatedDateTime(new Date());
+        response.setUpdatedDateTime(new Date());
+        response.setId(id);
+        response.setLines(List.of("000", "012"));
+        response.setStatusEnquired(statusEnquired);
+        response.setUserId(userId);
+
+        List<LotteryTicketResponse> responseList = new ArrayList<>(List.of(response));
+        when(lotteryService.getAllTickets(null, 100, null)).thenReturn(new LotteryTicketPage(responseList, null));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket")).andDo(print()).andExpect(status().isOk())
+                .andExpect(content().string(containsString(userId)))
+                .andExpect(header().doesNotExist(LotteryController.NEXT_PAGE_TOKEN_HEADER));
+    }
+
+    @Test
+    public void testGetAllTicketsNextPage() throws Exception {
+        String id = "5f29e3c036e952151b624571";
+        String nextPageToken = "5f29e53636e952151b624572";
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setId(nextPageToken);
+        response.setLines(List.of("000", "012"));
+        response.setUserId("user1");
+
+        when(lotteryService.getAllTickets(id, 1, null)).thenReturn(new LotteryTicketPage(List.of(response), nextPageToken));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket").param("pageToken", id).param("pageSize", "1"))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(header().string(LotteryController.NEXT_PAGE_TOKEN_HEADER, nextPageToken));
+    }
+
+    @Test
+    public void testGetAllTicketsInvalidPage() throws Exception {
+        when(lotteryService.getAllTickets("abc", 100, null)).thenThrow(new IllegalArgumentException());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket").param("pageToken", "abc"))
+                .andDo(print()).andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket").param("pageSize", "0"))
+                .andDo(print()).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetAllTicketsEmptyResult() throws Exception {
+        when(lotteryService.getAllTickets(null, 100, null)).thenReturn(new LotteryTicketPage(new ArrayList<>(), null));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket"))
+                .andDo(print()).andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testGetAllTicketsWithFields() throws Exception {
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setId("id1");
+        response.setUserId("user1");
+
+        when(lotteryService.getAllTickets(null, 100, Set.of("id", "userId"))).thenReturn(new LotteryTicketPage(List.of(response), null));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket").param("fields", "id, userId"))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userId").value("user1"))
+                .andExpect(jsonPath("$[0].lines").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllTicketsUnknownField() throws Exception {
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket").param("fields", "id,summary"))
+                .andDo(print()).andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").param("fields", "password"))
+                .andDo(print()).andExpect(status().isBadRequest());
+        verifyNoInteractions(lotteryService);
+    }
+
+    @Test
+    public void testGetTicketsByUserId() throws Exception {
+        String userId = "user1";
+        String nextPageToken = "1596600000000_5f29e854ca9b7c758a57e5dd";
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setId("5f29e854ca9b7c758a57e5dd");
+        response.setLines(List.of("000", "012"));
+        response.setUserId(userId);
+
+        when(lotteryService.getTicketsByUserId(userId, null, 1, null)).thenReturn(new LotteryTicketPage(List.of(response), nextPageToken));
+        this.mockMvc.perform(get("/lotteryapi/v1/users/" + userId + "/tickets").param("pageSize", "1"))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(content().string(containsString(userId)))
+                .andExpect(header().string(LotteryController.NEXT_PAGE_TOKEN_HEADER, nextPageToken));
+    }
+
+    @Test
+    public void testGetTicketsByUserIdEmptyResult() throws Exception {
+        when(lotteryService.getTicketsByUserId("user1", null, 100, null)).thenReturn(new LotteryTicketPage(new ArrayList<>(), null));
+        this.mockMvc.perform(get("/lotteryapi/v1/users/user1/tickets"))
+                .andDo(print()).andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testStreamAllTickets() throws Exception {
+        LotteryTicketResponse response1 = new LotteryTicketResponse();
+        response1.setId("id1");
+        response1.setLines(List.of("000"));
+        LotteryTicketResponse response2 = new LotteryTicketResponse();
+        response2.setId("id2");
+        response2.setLines(List.of("012"));
+
+        when(lotteryService.streamAllTickets(null)).thenReturn(Stream.of(response1, response2));
+        MvcResult result = this.mockMvc.perform(get("/lotteryapi/v1/ticket/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(startsWith("{\"id\":\"id1\"")))
+                .andExpect(content().string(containsString("\n{\"id\":\"id2\"")));
+    }
+
+    @Test
+    public void testGetTicketByIdValidScenario() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setCreatedDateTime(new Date());
+        response.setUpdatedDateTime(new Date());
+        response.setId(id);
+        response.setLines(List.of("000", "012"));
+        response.setStatusEnquired(statusEnquired);
+        response.setUserId(userId);
+
+        when(lotteryService.getTicketById(id, null)).thenReturn(response);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/" + id))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(content().string(containsString(id)));
+        verifyNoInteractions(lotteryMetrics);
+    }
+
+    @Test
+    public void testGetTicketByIdSmile() throws Exception {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000", "012", "000"), "user1", updatedDateTime, updatedDateTime, true);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketById("id1", null)).thenReturn(response);
+        MvcResult result = this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").accept(SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE_VALUE))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-smile\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        LotteryTicketResponse decoded = new ObjectMapper(new SmileFactory())
+                .readValue(result.getResponse().getContentAsByteArray(), LotteryTicketResponse.class);
+        assertEquals(decoded.getLines(), response.getLines());
+        assertEquals(decoded.getUpdatedDateTime(), updatedDateTime);
+        assertTrue(decoded.isStatusEnquired());
+        assertTrue(result.getResponse().getContentAsByteArray().length < mapper.writeValueAsBytes(response).length);
+    }
+
+    @Test
+    public void testGetAllTicketsCbor() throws Exception {
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000", "012"), "user1", new Date(), new Date(), false);
+
+        when(lotteryService.getAllTickets(null, 100, null)).thenReturn(new LotteryTicketPage(List.of(response), null));
+        MvcResult result = this.mockMvc.perform(get("/lotteryapi/v1/ticket").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        LotteryTicketResponse[] decoded = new ObjectMapper(new CBORFactory())
+                .readValue(result.getResponse().getContentAsByteArray(), LotteryTicketResponse[].class);
+        assertEquals(decoded.length, 1);
+        assertEquals(decoded[0].getLines(), List.of("000", "012"));
+    }
+
+    @Test
+    public void testGetTicketByIdRepositoryConcurrencyLimit() throws Exception {
+        when(lotteryService.getTicketById("id1", null)).thenThrow(new RepositoryConcurrencyLimitException("No repository permit", null));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1"))
+                .andDo(print()).andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    public void testGetTicketByIdConditional() throws Exception {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", updatedDateTime, updatedDateTime, false);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketById("id1", null)).thenReturn(response);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(new LotteryTicketVersion(3L, updatedDateTime, false));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+        // The ticket is only loaded by the first request
+        verify(lotteryService, times(1)).getTicketById("id1", null);
+
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_NONE_MATCH, "W/\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("id1"));
+    }
+
+    @Test
+    public void testGetTicketByIdConditionalPerRepresentation() throws Exception {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", updatedDateTime, updatedDateTime, false);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(new LotteryTicketVersion(3L, updatedDateTime, false));
+        when(lotteryService.getTicketById("id1", null)).thenReturn(response);
+        // The JSON ETag does not validate the Smile representation
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").accept(SMILE_VALUE).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE_VALUE))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-smile\""));
+
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").accept(SMILE_VALUE).header(HttpHeaders.IF_NONE_MATCH, "W/\"3-smile\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-smile\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "W/\"3-smile\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-cbor\""));
+
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").accept(MediaType.ALL).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""));
+    }
+
+    @Test
+    public void testGetTicketByIdWithFieldsConditional() throws Exception {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", null, "user1", null, null, false);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketById(eq("id1"), any())).thenReturn(response);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").param("fields", "userId"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-f4\""))
+                .andExpect(jsonPath("$.version").value(3));
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(new LotteryTicketVersion(3L, updatedDateTime, false));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").param("fields", "userId").header(HttpHeaders.IF_NONE_MATCH, "W/\"3-f4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-f4\""));
+        // The ETag of another selection of fields, or of all fields, does not validate this selection
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").param("fields", "userId,lines").header(HttpHeaders.IF_NONE_MATCH, "W/\"3-f4\""))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").param("fields", "userId").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testFieldSelectionOf() {
+        assertEquals(LotteryController.fieldSelectionOf(null), "");
+        assertEquals(LotteryController.fieldSelectionOf(Set.of("userId")), "-f4");
+        assertEquals(LotteryController.fieldSelectionOf(Set.of("lines", "userId")), "-f6");
+        assertEquals(LotteryController.fieldSelectionOf(LotteryService.TICKET_FIELDS), "-f3f");
+        assertEquals(Set.copyOf(LotteryController.FIELD_BITS), LotteryService.TICKET_FIELDS);
+        assertEquals(LotteryController.versionOf("W/\"3-f6-smile\""), Long.valueOf(3));
+        assertEquals(LotteryController.versionOf("\"3-f6\""), Long.valueOf(3));
+        assertNull(LotteryController.versionOf("\"3-f6-xml\""));
+        assertNull(LotteryController.versionOf("\"3-smile-f6\""));
+    }
+
+    @Test
+    public void testRepresentationOf() {
+        assertEquals(LotteryController.representationOf(null), "");
+        assertEquals(LotteryController.representationOf("*/*"), "");
+        assertEquals(LotteryController.representationOf("application/json"), "");
+        assertEquals(LotteryController.representationOf(SMILE_VALUE), "-smile");
+        assertEquals(LotteryController.representationOf("application/json;q=0.5, application/cbor"), "-cbor");
+        assertEquals(LotteryController.representationOf("application/json;q=0, " + SMILE_VALUE), "-smile");
+        assertEquals(LotteryController.representationOf("not a media type"), "");
+        assertEquals(LotteryController.versionOf("\"3-smile\""), Long.valueOf(3));
+        assertEquals(LotteryController.versionOf("\"3-cbor\""), Long.valueOf(3));
+        assertNull(LotteryController.versionOf("\"-smile\""));
+        assertEquals(LotteryController.versionOf("W/\"3-smile\""), Long.valueOf(3));
+        assertEquals(LotteryController.eTagOf(3, "-cbor"), "W/\"3-cbor\"");
+    }
+
+    @Test
+    public void testGetTicketByIdStatusCheckedIsCacheable() throws Exception {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", updatedDateTime, updatedDateTime, true);
+
+        when(lotteryService.getTicketById("id1", null)).thenReturn(response);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private"));
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(new LotteryTicketVersion(4L, updatedDateTime, true));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_NONE_MATCH, "W/\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private"));
+    }
+
+    @Test
+    public void testGetTicketByIdInvalidId() throws Exception {
+        when(lotteryService.getTicketById(anyString(), isNull())).thenThrow(new NoSuchElementException());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/abc"))
+                .andDo(print()).andExpect(status().isNotFound());
+        verify(lotteryMetrics).recordRejectedRequest("getTicketById", 404);
+    }
+
+    @Test
+    public void testGetTicketSummary() throws Exception {
+        LotteryTicketSummaryResponse summary = new LotteryTicketSummaryResponse();
+        summary.setId("id1");
+        summary.setLineCount(2);
+        summary.setTotalScore(15);
+        summary.setMaxResult(10);
+
+        when(lotteryService.getTicketSummary("id1")).thenReturn(summary);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalScore").value(15))
+                .andExpect(jsonPath("$.maxResult").value(10));
+    }
+
+    @Test
+    public void testGetTicketSummaryBeforeStatusCheck() throws Exception {
+        when(lotteryService.getTicketSummary("id1")).thenThrow(new AccessDeniedException("Results not available before status check"));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/summary"))
+                .andExpect(status().isForbidden());
+
+        when(lotteryService.getTicketSummary("id2")).thenThrow(new NoSuchElementException());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id2/summary"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetTicketLines() throws Exception {
+        LotteryTicketLinesResponse lines = new LotteryTicketLinesResponse();
+        lines.setId("id1");
+        lines.setLineCount(3);
+        lines.setSkip(1);
+        lines.setLines(List.of(new Line("000", 5)));
+
+        when(lotteryService.getTicketLines("id1", "desc", 1, 1)).thenReturn(lines);
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/lines?sortDir=desc&skip=1&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineCount").value(3))
+                .andExpect(jsonPath("$.lines[0].numbers").value("000"))
+                .andExpect(jsonPath("$.lines[0].result").value(5));
+    }
+
+    @Test
+    public void testGetTicketLinesInvalidScenarios() throws Exception {
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/lines?skip=-1"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/lines?limit=0"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/lines?limit=" + (LotteryController.MAX_LINE_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+
+        when(lotteryService.getTicketLines("id1", null, 0, LotteryController.DEFAULT_LINE_LIMIT))
+                .thenThrow(new AccessDeniedException("Results not available before status check"));
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id1/lines"))
+                .andExpect(status().isForbidden());
+
+        when(lotteryService.getTicketLines("id2", null, 0, LotteryController.DEFAULT_LINE_LIMIT))
+                .thenThrow(new NoSuchElementException());
+        this.mockMvc.perform(get("/lotteryapi/v1/ticket/id2/lines"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetStats() throws Exception {
+        TicketStatsResponse hour = new TicketStatsResponse();
+        hour.setTicketsCreated(3);
+        hour.setResult10Count(2);
+
+        when(ticketStatsService.getStats(Date.from(Instant.parse("2020-08-05T00:00:00Z")), Date.from(Instant.parse("2020-08-06T00:00:00Z")), ChronoUnit.DAYS))
+                .thenReturn(List.of(hour));
+        this.mockMvc.perform(get("/lotteryapi/v1/stats?from=2020-08-05T00:00:00Z&to=2020-08-06T00:00:00Z&granularity=day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ticketsCreated").value(3))
+                .andExpect(jsonPath("$[0].result10Count").value(2));
+    }
+
+    @Test
+    public void testGetStatsInvalidScenarios() throws Exception {
+        this.mockMvc.perform(get("/lotteryapi/v1/stats?granularity=week"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/stats?from=2020-08-06T00:00:00Z&to=2020-08-05T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/stats?from=2019-01-01T00:00:00Z&to=2020-08-05T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/lotteryapi/v1/stats?from=yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createTicketValidScenario() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setCreatedDateTime(new Date());
+        response.setUpdatedDateTime(new Date());
+        response.setId(id);
+        response.setLines(List.of("000", "012"));
+        response.setStatusEnquired(statusEnquired);
+        response.setUserId(userId);
+
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), eq(PackedLines.fromNumbers(List.of("000", "012"))), isNull())).thenReturn(response);
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(containsString(id)));
+    }
+
+    @Test
+    public void createTicketWriteBehind() throws Exception {
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setId("id1");
+        response.setLines(List.of("000"));
+        response.setUserId("user1");
+
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), any(PackedLines.class), isNull())).thenReturn(response);
+        when(lotteryService.isCreationAcknowledgedOnEnqueue()).thenReturn(true);
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\"]}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("id1"));
+    }
+
+    @Test
+    public void createTicketQueueFull() throws Exception {
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), any(PackedLines.class), isNull()))
+                .thenThrow(new TicketQueueFullException("Ticket queue is full, retry later"));
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\"]}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        verify(lotteryMetrics).recordRejectedRequest("createTicket", 429);
+    }
+
+    @Test
+    public void createTicketWithIdempotencyKey() throws Exception {
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setId("id1");
+        response.setLines(List.of("000"));
+        response.setUserId("user1");
+
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), any(PackedLines.class), eq("key1"))).thenReturn(response);
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .header(LotteryController.IDEMPOTENCY_KEY_HEADER, "key1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\"]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("id1"));
+
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), any(PackedLines.class), eq("key2")))
+                .thenThrow(new IdempotencyKeyConflictException("Idempotency-Key already used for a different request"));
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .header(LotteryController.IDEMPOTENCY_KEY_HEADER, "key2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\"]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key already used for a different request"));
+
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .header(LotteryController.IDEMPOTENCY_KEY_HEADER, " ")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createTicketInvalidUserId() throws Exception {
+        String id = "id1";
+        String userId = "";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012", "001", "002"));
+        request.setUserId(userId);
+
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createTicketInvalidTicketLines() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setUserId(userId);
+
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        request.setLines(List.of("0000", "012222"));
+
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void createTicketInvalidTicketLineIndex() throws Exception {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012", "013", "2a2"), "user1");
+
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lineIndex").value(2))
+                .andExpect(jsonPath("$.message").value(containsString("index 2")));
+    }
+
+    @Test
+    public void createTicketMalformedBody() throws Exception {
+        this.mockMvc.perform(post("/lotteryapi/v1/ticket/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user1\", \"lines\": [\"000\", ")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed request body"));
+    }
+
+    @Test
+    public void createTicketsBatch() throws Exception {
+        LotteryTicketRequest valid1 = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        LotteryTicketRequest invalidUser = new LotteryTicketRequest(List.of("000"), "");
+        LotteryTicketRequest valid2 = new LotteryTicketRequest(List.of("222"), "user2");
+        LotteryTicketRequest invalidLines = new LotteryTicketRequest(List.of("0000"), "user3");
+
+        when(lotteryService.saveTickets(any(), any())).thenReturn(List.of(
+                LotteryTicketBatchResult.created(0, "id1"),
+                LotteryTicketBatchResult.failed(1, "duplicate key")));
+        this.mockMvc.perform(post("/lotteryapi/v1/tickets/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(valid1, invalidUser, valid2, invalidLines)))
+                .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].id").value("id1"))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("userId is required"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].error").value("duplicate key"))
+                .andExpect(jsonPath("$[3].id").doesNotExist())
+                .andExpect(jsonPath("$[3].error").value(containsString("index 0")));
+    }
+
+    @Test
+    public void createTicketsEmptyBatch() throws Exception {
+        this.mockMvc.perform(post("/lotteryapi/v1/tickets/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void updateTicketValidScenario() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+        LotteryTicketResponse response = new LotteryTicketResponse();
+        response.setCreatedDateTime(new Date());
+        response.setUpdatedDateTime(new Date());
+        response.setId(id);
+        response.setLines(List.of("000", "012"));
+        response.setStatusEnquired(statusEnquired);
+        response.setUserId(userId);
+        response.setVersion(1L);
+
+        when(lotteryService.updateTicket(eq(id), eq(0L), any(LotteryTicketRequest.class), eq(PackedLines.fromNumbers(List.of("000", "012"))))).thenReturn(response);
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // The ETag of the Smile representation is accepted in If-Match
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0-smile\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-smile\""));
+    }
+
+    @Test
+    public void updateTicketWithoutIfMatch() throws Exception {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000", "012"), "user1", new Date(), new Date(), false);
+        response.setVersion(4L);
+
+        // The update is based on the version read by the service
+        when(lotteryService.updateTicket(eq("id1"), isNull(), any(LotteryTicketRequest.class), any(PackedLines.class))).thenReturn(response);
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/id1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""));
+
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/id1")
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(lotteryService, times(2)).updateTicket(eq("id1"), isNull(), any(LotteryTicketRequest.class), any(PackedLines.class));
+    }
+
+    @Test
+    public void updateTicketIfMatchNotAnETag() throws Exception {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/id1")
+                .header(HttpHeaders.IF_MATCH, "\"one\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        verify(lotteryService, times(0)).updateTicket(anyString(), any(), any(LotteryTicketRequest.class), any(PackedLines.class));
+    }
+
+    @Test
+    public void updateTicketInvalidUserId() throws Exception {
+        String id = "id1";
+        String userId = "";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012", "001", "002"));
+        request.setUserId(userId);
+
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void updateTicketInvalidTicketLines() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setUserId(userId);
+
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        request.setLines(List.of("0000", "012222"));
+
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void updateTicketIdNotFoundInDB() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+
+        when(lotteryService.updateTicket(anyString(), isNull(), any(LotteryTicketRequest.class), any(PackedLines.class))).thenThrow(new NoSuchElementException());
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void updateTicketIdDifferentUser() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+
+        when(lotteryService.updateTicket(anyString(), isNull(), any(LotteryTicketRequest.class), any(PackedLines.class))).thenThrow(new AccessDeniedException("Access denied"));
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void updateTicketConcurrentUpdate() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+
+        when(lotteryService.updateTicket(anyString(), eq(0L), any(LotteryTicketRequest.class), any(PackedLines.class))).thenThrow(new OptimisticLockingFailureException("conflict"));
+        this.mockMvc.perform(put("/lotteryapi/v1/ticket/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void updateTicketStatusValidScenario() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+        LotteryTicket response = new LotteryTicket();
+        response.setCreatedDateTime(new Date());
+        response.setUpdatedDateTime(new Date());
+        response.setId(id);
+        response.setLines(List.of(
+                new Line("000", 5),
+                new Line("012", 1)));
+        response.setStatusEnquired(statusEnquired);
+        response.setUserId(userId);
+
+        when(lotteryService.updateTicketStatus(id, null, request)).thenReturn(response);
+        this.mockMvc.perform(put("/lotteryapi/v1/status/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void updateTicketStatusInvalidUserId() throws Exception {
+        String id = "id1";
+        String userId = "";
+        boolean statusEnquired = false;
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012", "001", "002"));
+        request.setUserId(userId);
+
+        this.mockMvc.perform(put("/lotteryapi/v1/status/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    public void updateTicketStatusIdNotFoundInDB() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+
+        when(lotteryService.updateTicketStatus(anyString(), anyString(), any(LotteryTicketRequest.class))).thenThrow(new NoSuchElementException());
+        this.mockMvc.perform(put("/lotteryapi/v1/status/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .param("sortDir", "asc")
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void updateTicketStatusIdDifferentUser() throws Exception {
+        String id = "id1";
+        String userId = "user1";
+
+        LotteryTicketRequest request = new LotteryTicketRequest();
+        request.setLines(List.of("000", "012"));
+        request.setUserId(userId);
+
+
+        when(lotteryService.updateTicketStatus(anyString(), anyString(), any(LotteryTicketRequest.class))).thenThrow(new AccessDeniedException("Access denied"));
+        this.mockMvc.perform(put("/lotteryapi/v1/status/" + id)
+                .param("sortDir", "asc")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.lotterymgmtapi.controller;
+
+import com.example.lotterymgmtapi.config.ReactiveConfig;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.service.ReactiveLotteryService;
+import com.example.lotterymgmtapi.validation.LineValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.AccessDeniedException;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveLotteryController.class)
+@ActiveProfiles("reactive")
+@Import({LineValidator.class, ReactiveConfig.class})
+public class ReactiveLotteryControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveLotteryService lotteryService;
+
+    @Test
+    public void testGetAllTicketsNextPage() {
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", new Date(), new Date(), false);
+
+        when(lotteryService.getAllTickets(null, 1)).thenReturn(Mono.just(new LotteryTicketPage(List.of(response), "id1")));
+        webTestClient.get().uri("/lotteryapi/v1/ticket?pageSize=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(LotteryController.NEXT_PAGE_TOKEN_HEADER, "id1")
+                .expectBody().jsonPath("$[0].userId").isEqualTo("user1");
+    }
+
+    @Test
+    public void testGetTicketByIdInvalidId() {
+        when(lotteryService.getTicketById("abc", null)).thenReturn(Mono.error(new NoSuchElementException()));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/abc").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testGetTicketByIdConditional() {
+        Date updatedDateTime = new Date(1596614400123L);
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", updatedDateTime, updatedDateTime, false);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketById("id1", null)).thenReturn(Mono.just(response));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED);
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(Mono.just(new LotteryTicketVersion(3L, updatedDateTime, false)));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .expectBody().isEmpty();
+        // The ticket is only loaded by the first request
+        verify(lotteryService, times(1)).getTicketById("id1", null);
+
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_NONE_MATCH, "W/\"2\"").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo("id1");
+    }
+
+    @Test
+    public void testGetTicketByIdStatusCheckedIsCacheable() {
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", new Date(), new Date(), true);
+        response.setVersion(1L);
+
+        when(lotteryService.getTicketById("id1", null)).thenReturn(Mono.just(response));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.CACHE_CONTROL, startsWith("max-age="));
+    }
+
+    @Test
+    public void testGetTicketByIdWithFields() {
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", null, "user1", null, null, false);
+        response.setVersion(3L);
+
+        when(lotteryService.getTicketById("id1", Set.of("userId"))).thenReturn(Mono.just(response));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1?fields=userId").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3-f4\"")
+                .expectBody()
+                .jsonPath("$.userId").isEqualTo("user1")
+                .jsonPath("$.lines").doesNotExist()
+                .jsonPath("$.version").isEqualTo(3);
+
+        when(lotteryService.getTicketVersionById("id1")).thenReturn(Mono.just(new LotteryTicketVersion(3L, new Date(), false)));
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1?fields=userId").header(HttpHeaders.IF_NONE_MATCH, "W/\"3-f4\"").exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get().uri("/lotteryapi/v1/ticket/id1?fields=password").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testCreateTicketValidScenario() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000", "012"), "user1", new Date(), new Date(), false);
+
+        when(lotteryService.saveTicket(any(LotteryTicketRequest.class), any(PackedLines.class))).thenReturn(Mono.just(response));
+        webTestClient.post().uri("/lotteryapi/v1/ticket").contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo("id1");
+    }
+
+    @Test
+    public void testCreateTicketInvalidTicketLines() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("0000"), "user1");
+        webTestClient.post().uri("/lotteryapi/v1/ticket").contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.lineIndex").isEqualTo(0);
+    }
+
+    @Test
+    public void testUpdateTicketConcurrentUpdate() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+
+        when(lotteryService.updateTicket(anyString(), eq(2L), any(LotteryTicketRequest.class), any(PackedLines.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+        webTestClient.put().uri("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void testUpdateTicketWithoutIfMatch() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", new Date(), new Date(), false);
+        response.setVersion(5L);
+
+        when(lotteryService.updateTicket(anyString(), isNull(), any(LotteryTicketRequest.class), any(PackedLines.class)))
+                .thenReturn(Mono.just(response));
+        webTestClient.put().uri("/lotteryapi/v1/ticket/id1").contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"5\"");
+    }
+
+    @Test
+    public void testUpdateTicketValidScenario() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        LotteryTicketResponse response = new LotteryTicketResponse("id1", List.of("000"), "user1", new Date(), new Date(), false);
+        response.setVersion(3L);
+
+        when(lotteryService.updateTicket(anyString(), eq(2L), any(LotteryTicketRequest.class), any(PackedLines.class)))
+                .thenReturn(Mono.just(response));
+        webTestClient.put().uri("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        when(lotteryService.updateTicket(anyString(), eq(3L), any(LotteryTicketRequest.class), any(PackedLines.class)))
+                .thenReturn(Mono.just(response));
+        webTestClient.put().uri("/lotteryapi/v1/ticket/id1").header(HttpHeaders.IF_MATCH, "\"3-smile\"")
+                .accept(MediaType.parseMediaType("application/x-jackson-smile"))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3-smile\"");
+    }
+
+    @Test
+    public void testUpdateTicketStatusAfterStatusCheck() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of(), "user1");
+
+        when(lotteryService.updateTicketStatus(anyString(), isNull(), any(LotteryTicketRequest.class)))
+                .thenReturn(Mono.error(new AccessDeniedException("Updates not possible after status check")));
+        webTestClient.put().uri("/lotteryapi/v1/status/id1").contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+                .expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.lotterymgmtapi.converter;
+
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedLinesConvertersTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(PackedLinesConverters.getConverters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    public void testWriteLinesAsBinary() {
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(
+                new Line("000", 5),
+                new Line("012", 1),
+                new Line("222", 5)), "user1", new Date(), new Date(), false);
+
+        Document document = new Document();
+        converter.write(lotteryTicket, document);
+
+        Binary lines = (Binary) document.get("lines");
+        assertArrayEquals(lines.getData(), new byte[]{0, 5, 26});
+
+        Document summary = (Document) document.get("summary");
+        assertEquals(summary.get("lineCount"), 3);
+        assertEquals(summary.get("totalScore"), 11L);
+        assertEquals(summary.get("maxResult"), 5);
+        assertEquals(summary.get("result1Count"), 1);
+        assertEquals(summary.get("result5Count"), 2);
+    }
+
+    @Test
+    public void testReadLinesFromBinary() {
+        Document document = new Document("userId", "user1")
+                .append("lines", new Binary(new byte[]{2, 0}))
+                .append("statusEnquired", false);
+
+        LotteryTicket lotteryTicket = converter.read(LotteryTicket.class, document);
+        assertEquals(lotteryTicket.getLines().size(), 2);
+        assertEquals(lotteryTicket.getLines().get(0).getNumbers(), "002");
+        assertEquals(lotteryTicket.getLines().get(0).getResult(), 10);
+        assertEquals(lotteryTicket.getLines().get(1).getNumbers(), "000");
+        assertEquals(lotteryTicket.getLines().get(1).getResult(), 5);
+    }
+
+    @Test
+    public void testReadLegacyLines() {
+        Document document = new Document("userId", "user1")
+                .append("lines", List.of(
+                        new Document("numbers", "011").append("result", 10),
+                        new Document("numbers", "010").append("result", 0)))
+                .append("statusEnquired", true);
+
+        LotteryTicket lotteryTicket = converter.read(LotteryTicket.class, document);
+        assertEquals(lotteryTicket.getUserId(), "user1");
+        assertTrue(lotteryTicket.getStatusEnquired());
+        assertEquals(lotteryTicket.getPackedLines().size(), 2);
+        assertEquals(lotteryTicket.getLines().get(0).getNumbers(), "011");
+        assertEquals(lotteryTicket.getLines().get(0).getResult(), 10);
+        assertEquals(lotteryTicket.getLines().get(1).getNumbers(), "010");
+        assertEquals(lotteryTicket.getLines().get(1).getResult(), 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.lotterymgmtapi.engine;
+
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineSorterTest {
+
+    @Test
+    public void testSortAscending() {
+        PackedLines lines = PackedLines.fromNumbers(Arrays.asList("011", "002", "000", "012"));
+        assertEquals(LineSorter.sort(lines, true).numbers(), Arrays.asList("012", "000", "011", "002"));
+    }
+
+    @Test
+    public void testSortDescending() {
+        PackedLines lines = PackedLines.fromNumbers(Arrays.asList("011", "002", "000", "012"));
+        assertEquals(LineSorter.sort(lines, false).numbers(), Arrays.asList("011", "002", "000", "012"));
+    }
+
+    @Test
+    public void testSortIsStableInBothDirections() {
+        // "222", "000" and "111" all result in 5
+        PackedLines lines = PackedLines.fromNumbers(Arrays.asList("222", "122", "000", "011", "111"));
+        assertEquals(LineSorter.sort(lines, true).numbers(), Arrays.asList("122", "222", "000", "111", "011"));
+        assertEquals(LineSorter.sort(lines, false).numbers(), Arrays.asList("011", "222", "000", "111", "122"));
+    }
+
+    @Test
+    public void testSortMatchesComparatorSort() {
+        Random random = new Random(7);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add("" + random.nextInt(3) + random.nextInt(3) + random.nextInt(3));
+        }
+        PackedLines lines = PackedLines.fromNumbers(numbers);
+
+        List<Line> ascending = lines.toLines().stream()
+                .sorted(Comparator.comparingInt(Line::getResult)).collect(Collectors.toList());
+        List<Line> descending = lines.toLines().stream()
+                .sorted(Comparator.comparingInt(Line::getResult).reversed()).collect(Collectors.toList());
+
+        assertEquals(LineSorter.sort(lines, true), PackedLines.fromLines(ascending));
+        assertEquals(LineSorter.sort(lines, false), PackedLines.fromLines(descending));
+    }
+
+    @Test
+    public void testOrderIteratesIndexesLazily() {
+        PackedLines lines = PackedLines.fromNumbers(Arrays.asList("011", "002", "000", "012"));
+        assertArrayEquals(toArray(LineSorter.order(lines, true)), new int[]{3, 2, 0, 1});
+        assertArrayEquals(toArray(LineSorter.order(lines, false)), new int[]{0, 1, 2, 3});
+    }
+
+    @Test
+    public void testOrderOfNoLines() {
+        PrimitiveIterator.OfInt order = LineSorter.order(PackedLines.fromCodes(new byte[0]), false);
+        assertFalse(order.hasNext());
+        assertThrows(java.util.NoSuchElementException.class, order::nextInt);
+    }
+
+    private static int[] toArray(PrimitiveIterator.OfInt iterator) {
+        List<Integer> indexes = new ArrayList<>();
+        iterator.forEachRemaining((int i) -> indexes.add(i));
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.lotterymgmtapi.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultEngineTest {
+
+    @Test
+    public void testEncode() {
+        assertEquals(ResultEngine.encode("000"), 0);
+        assertEquals(ResultEngine.encode("012"), 5);
+        assertEquals(ResultEngine.encode("222"), 26);
+    }
+
+    @Test
+    public void testEncodeInvalidLines() {
+        assertEquals(ResultEngine.encode(null), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode(""), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode("0000"), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode("013"), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode("0/1"), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode("ab1"), ResultEngine.INVALID);
+    }
+
+    @Test
+    public void testEncodeCharacterBuffer() {
+        char[] chars = "[\"012\",\"0123\"]".toCharArray();
+        assertEquals(ResultEngine.encode(chars, 2, 3), 5);
+        assertEquals(ResultEngine.encode(chars, 8, 4), ResultEngine.INVALID);
+        assertEquals(ResultEngine.encode(chars, 1, 3), ResultEngine.INVALID);
+    }
+
+    @Test
+    public void testComputeResultMatchesRulesForAllLines() {
+        for (int num1 = 0; num1 <= 2; num1++) {
+            for (int num2 = 0; num2 <= 2; num2++) {
+                for (int num3 = 0; num3 <= 2; num3++) {
+                    int expected;
+                    if (num1 + num2 + num3 == 2) {
+                        expected = 10;
+                    } else if (num1 == num2 && num2 == num3) {
+                        expected = 5;
+                    } else if (num1 != num2 && num1 != num3) {
+                        expected = 1;
+                    } else {
+                        expected = 0;
+                    }
+                    String line = "" + num1 + num2 + num3;
+                    assertEquals(ResultEngine.computeResult(line), expected, line);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testComputeResultInvalidLine() {
+        assertThrows(IllegalArgumentException.class, () -> ResultEngine.computeResult("300"));
+    }
+}
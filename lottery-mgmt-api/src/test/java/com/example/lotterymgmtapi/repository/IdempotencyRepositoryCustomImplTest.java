@@ -0,0 +1,74 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyRepositoryCustomImplTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private IdempotencyRepositoryCustomImpl idempotencyRepository;
+
+    private final IdempotencyRecord.Key key = new IdempotencyRecord.Key("user1", "key1");
+
+    @Test
+    public void testTakeOver() {
+        Date pendingUntil = new Date(30_000);
+        Date expiresAt = new Date(86_400_000);
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .willReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(idempotencyRepository.takeOver(new IdempotencyRecord(key, "fingerprint", "id2", pendingUntil, expiresAt), "id1"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(IdempotencyRecord.class));
+
+        // Only taken over if still reserved for the ticket of the expired reservation
+        assertEquals(query.getValue().getQueryObject().get("id"), key);
+        assertEquals(query.getValue().getQueryObject().get("ticketId"), "id1");
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(set.get("ticketId"), "id2");
+        assertEquals(set.get("pendingUntil"), pendingUntil);
+        assertEquals(set.get("expiresAt"), expiresAt);
+    }
+
+    @Test
+    public void testTakeOverLost() {
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .willReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(idempotencyRepository.takeOver(new IdempotencyRecord(key, "fingerprint", "id2", new Date(), new Date()), "id1"));
+    }
+
+    @Test
+    public void testRelease() {
+        given(mongoTemplate.remove(any(Query.class), eq(IdempotencyRecord.class))).willReturn(DeleteResult.acknowledged(1));
+
+        assertTrue(idempotencyRepository.release(new IdempotencyRecord(key, "fingerprint", "id1", new Date(), new Date())));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(IdempotencyRecord.class));
+        assertEquals(query.getValue().getQueryObject().get("id"), key);
+        assertEquals(query.getValue().getQueryObject().get("ticketId"), "id1");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class LotteryRepositoryCustomImplTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private LotteryRepositoryCustomImpl lotteryRepository;
+
+    @Test
+    public void testMarkStatusEnquired() {
+        Date updatedDateTime = new Date();
+        lotteryRepository.markStatusEnquired("id1", "user.1", updatedDateTime);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(LotteryTicket.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(filter.get("id"), "id1");
+        assertEquals(filter.get("statusEnquired"), false);
+        // User ids are case sensitive, as in findByUserId
+        assertEquals(filter.get("userId"), "user.1");
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(set.get("statusEnquired"), true);
+        assertEquals(set.get("updatedDateTime"), updatedDateTime);
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    public void testUpdateLines() {
+        Date updatedDateTime = new Date();
+        PackedLines lines = PackedLines.fromNumbers(List.of("000", "012"));
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(LotteryTicket.class)))
+                .willReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(lotteryRepository.updateLines("id1", 3L, lines, updatedDateTime));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(LotteryTicket.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(filter.get("id"), "id1");
+        assertEquals(filter.get("version"), 3L);
+        assertEquals(filter.get("statusEnquired"), false);
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(set.keySet(), Set.of("lines", "summary", "updatedDateTime"));
+        assertEquals(set.get("lines"), lines);
+        assertEquals(((TicketSummary) set.get("summary")).getTotalScore(), 6);
+        assertEquals(((Document) update.getValue().getUpdateObject().get("$inc")).get("version"), 1);
+    }
+
+    @Test
+    public void testUpdateLinesVersion0MatchesTicketsWithoutVersion() {
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(LotteryTicket.class)))
+                .willReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        lotteryRepository.updateLines("id1", 0L, PackedLines.fromNumbers(List.of("000")), new Date());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(LotteryTicket.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(filter.get("version"), new Document("$in", Arrays.asList(0L, null)));
+    }
+
+    @Test
+    public void testUpdateLinesVersionConflict() {
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(LotteryTicket.class)))
+                .willReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(lotteryRepository.updateLines("id1", 3L, PackedLines.fromNumbers(List.of("000")), new Date()));
+    }
+
+    @Test
+    public void testFindByUserIdNextPage() {
+        Date createdBefore = new Date();
+        lotteryRepository.findByUserId("user1", createdBefore, "5f29e854ca9b7c758a57e5dd", 11);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(LotteryTicket.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(filter.get("userId"), "user1");
+        assertEquals(((List<?>) filter.get("$or")).size(), 2);
+        assertEquals(query.getValue().getSortObject(), new Document("createdDateTime", -1).append("id", -1));
+        assertEquals(query.getValue().getLimit(), 11);
+    }
+
+    @Test
+    public void testFindAllAfterWithFields() {
+        lotteryRepository.findAllAfter("5f29e854ca9b7c758a57e5dd", 11, Set.of("userId", "statusEnquired"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(LotteryTicket.class));
+
+        assertNotNull(query.getValue().getQueryObject().get("id"));
+        assertEquals(query.getValue().getFieldsObject(), new Document("userId", 1).append("statusEnquired", 1));
+        assertEquals(query.getValue().getSortObject(), new Document("id", 1));
+        assertEquals(query.getValue().getLimit(), 11);
+    }
+
+    @Test
+    public void testFindByUserIdWithFields() {
+        lotteryRepository.findByUserId("user1", null, null, 11, Set.of("createdDateTime"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(LotteryTicket.class));
+
+        assertEquals(query.getValue().getFieldsObject(), new Document("createdDateTime", 1));
+    }
+}
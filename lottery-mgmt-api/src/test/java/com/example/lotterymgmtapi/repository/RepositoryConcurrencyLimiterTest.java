@@ -0,0 +1,85 @@
+package com.example.lotterymgmtapi.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class RepositoryConcurrencyLimiterTest {
+    @Mock
+    private ProceedingJoinPoint outerCall;
+
+    @Mock
+    private ProceedingJoinPoint innerCall;
+
+    @Mock
+    private Signature signature;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testLimit() throws Throwable {
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(2, Duration.ofMillis(10));
+        limiter.bindTo(meterRegistry);
+        given(outerCall.proceed()).willAnswer(invocation -> {
+            assertEquals(limiter.getInUse(), 1);
+            return limiter.limit(innerCall);
+        });
+        given(innerCall.proceed()).willReturn("ticket");
+
+        assertEquals(limiter.limit(outerCall), "ticket");
+        assertEquals(limiter.getInUse(), 0);
+        assertEquals(meterRegistry.get("lottery.mongo.concurrency.in.use").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void testLimitRejected() throws Throwable {
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, Duration.ofMillis(10));
+        limiter.bindTo(meterRegistry);
+        given(outerCall.proceed()).willAnswer(invocation -> limiter.limit(innerCall));
+        given(innerCall.getSignature()).willReturn(signature);
+
+        assertThrows(RepositoryConcurrencyLimitException.class, () -> limiter.limit(outerCall));
+        assertEquals(limiter.getInUse(), 0);
+        assertEquals(meterRegistry.get("lottery.mongo.concurrency.rejected").counter().count(), 1.0);
+    }
+
+    @Test
+    public void testLimitReleasedOnFailure() throws Throwable {
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, Duration.ofMillis(10));
+        given(outerCall.proceed()).willThrow(new IllegalStateException());
+
+        assertThrows(IllegalStateException.class, () -> limiter.limit(outerCall));
+        assertEquals(limiter.getInUse(), 0);
+    }
+
+    @Test
+    public void testLimitHeldUntilStreamClosed() throws Throwable {
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, Duration.ofMillis(10));
+        given(outerCall.proceed()).willReturn(Stream.of("ticket1", "ticket2"));
+
+        try (Stream<?> tickets = (Stream<?>) limiter.limit(outerCall)) {
+            assertEquals(limiter.getInUse(), 1);
+            assertEquals(tickets.map(String::valueOf).collect(Collectors.toList()), List.of("ticket1", "ticket2"));
+            assertEquals(limiter.getInUse(), 1);
+        }
+        assertEquals(limiter.getInUse(), 0);
+    }
+
+    @Test
+    public void testInvalidMaxConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new RepositoryConcurrencyLimiter(0, Duration.ofSeconds(1)));
+    }
+}
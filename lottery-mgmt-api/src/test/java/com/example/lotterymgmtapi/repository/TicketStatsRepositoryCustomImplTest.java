@@ -0,0 +1,57 @@
+package com.example.lotterymgmtapi.repository;
+
+import com.example.lotterymgmtapi.model.TicketStats;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketStatsRepositoryCustomImplTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private TicketStatsRepositoryCustomImpl ticketStatsRepository;
+
+    @Test
+    public void testIncrement() {
+        Date period = new Date(0);
+        TicketStats increment = new TicketStats(period);
+        increment.setTicketsChecked(1);
+        increment.setLinesPlayed(4);
+        increment.setResult10Count(2);
+        ticketStatsRepository.increment(increment);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(TicketStats.class));
+
+        assertEquals(query.getValue().getQueryObject().get("period"), period);
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        // Only the counters that changed are written
+        assertEquals(inc.size(), 3);
+        assertEquals(inc.get("ticketsChecked"), 1L);
+        assertEquals(inc.get("linesPlayed"), 4L);
+        assertEquals(inc.get("result10Count"), 2L);
+    }
+
+    @Test
+    public void testIncrementNothing() {
+        ticketStatsRepository.increment(new TicketStats(new Date(0)));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
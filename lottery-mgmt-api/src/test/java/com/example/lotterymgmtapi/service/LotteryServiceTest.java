@@ -0,0 +1,880 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.cache.IdempotencyCache;
+import com.example.lotterymgmtapi.cache.TicketCache;
+import com.example.lotterymgmtapi.entity.LotteryTicketBatchResult;
+import com.example.lotterymgmtapi.entity.LotteryTicketLinesResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketPage;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketSummaryResponse;
+import com.example.lotterymgmtapi.entity.LotteryTicketVersion;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.IdempotencyRepository;
+import com.example.lotterymgmtapi.repository.LotteryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.AccessDeniedException;
+import java.text.DateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class LotteryServiceTest {
+    @Mock
+    private LotteryRepository lotteryRepository;
+
+    @Spy
+    private TicketCache ticketCache = new TicketCache(100, Duration.ofMinutes(10));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LotteryMetrics lotteryMetrics = new LotteryMetrics(meterRegistry);
+
+    @Mock
+    private TicketStatsService ticketStatsService;
+
+    @Mock
+    private IdempotencyRepository idempotencyRepository;
+
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(100, Duration.ofHours(24), Duration.ofSeconds(30));
+
+    @Spy
+    private TicketIdGenerator ticketIdGenerator = new TicketIdGenerator();
+
+    @InjectMocks
+    private LotteryService lotteryService;
+
+    @Test
+    public void testGetAllTickets() {
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        String userId = "user1";
+        boolean statusEnquired = false;
+
+        List<LotteryTicket> lotteryTicketList = List.of(
+                new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired)
+        );
+
+        given(lotteryRepository.findAllBy(any(Pageable.class))).willReturn(lotteryTicketList);
+
+        LotteryTicketPage lotteryTicketPageReturned = lotteryService.getAllTickets(null, 10);
+        assertEquals(lotteryTicketPageReturned.getTickets().size(), 1);
+        assertNull(lotteryTicketPageReturned.getNextPageToken());
+    }
+
+    @Test
+    public void testGetAllTicketsNextPage() {
+        String pageToken = "5f29e3c036e952151b624571";
+        List<Line> lines = List.of(new Line("000", 5));
+        List<LotteryTicket> lotteryTicketList = new ArrayList<>();
+        for (String id : List.of("5f29e53636e952151b624572", "5f29e854ca9b7c758a57e5dd", "5f2a525fd782b81ae150476d")) {
+            LotteryTicket lotteryTicket = new LotteryTicket(lines, "user1", new Date(), new Date(), false);
+            lotteryTicket.setId(id);
+            lotteryTicketList.add(lotteryTicket);
+        }
+
+        given(lotteryRepository.findByIdGreaterThan(eq(pageToken), any(Pageable.class))).willReturn(lotteryTicketList);
+
+        LotteryTicketPage lotteryTicketPageReturned = lotteryService.getAllTickets(pageToken, 2);
+        assertEquals(lotteryTicketPageReturned.getTickets().size(), 2);
+        assertEquals(lotteryTicketPageReturned.getNextPageToken(), "5f29e854ca9b7c758a57e5dd");
+    }
+
+    @Test
+    public void testGetAllTicketsWithFields() {
+        LotteryTicket projection = new LotteryTicket();
+        projection.setId("5f29e53636e952151b624572");
+        projection.setUserId("user1");
+        projection.setVersion(2L);
+
+        given(lotteryRepository.findAllAfter(null, 11, Set.of("userId", "statusEnquired", "version"))).willReturn(List.of(projection));
+
+        LotteryTicketPage lotteryTicketPageReturned = lotteryService.getAllTickets(null, 10, Set.of("userId"));
+        assertEquals(lotteryTicketPageReturned.getTickets().size(), 1);
+        assertEquals(lotteryTicketPageReturned.getTickets().get(0).getUserId(), "user1");
+        // The version is always returned
+        assertEquals(lotteryTicketPageReturned.getTickets().get(0).getVersion(), 2L);
+        assertNull(lotteryTicketPageReturned.getTickets().get(0).getLines());
+        assertNull(lotteryTicketPageReturned.getNextPageToken());
+    }
+
+    @Test
+    public void testGetAllTicketsInvalidPageToken() {
+        assertThrows(IllegalArgumentException.class, () -> lotteryService.getAllTickets("abc", 10));
+    }
+
+    @Test
+    public void testGetTicketsByUserId() {
+        String userId = "user1";
+        List<Line> lines = List.of(new Line("000", 5));
+        List<LotteryTicket> lotteryTicketList = new ArrayList<>();
+        for (String id : List.of("5f2a525fd782b81ae150476d", "5f29e854ca9b7c758a57e5dd", "5f29e53636e952151b624572")) {
+            LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(1596600000000L), new Date(), false);
+            lotteryTicket.setId(id);
+            lotteryTicketList.add(lotteryTicket);
+        }
+
+        given(lotteryRepository.findByUserId(userId, null, null, 3)).willReturn(lotteryTicketList);
+
+        LotteryTicketPage lotteryTicketPageReturned = lotteryService.getTicketsByUserId(userId, null, 2);
+        assertEquals(lotteryTicketPageReturned.getTickets().size(), 2);
+        assertEquals(lotteryTicketPageReturned.getNextPageToken(), "1596600000000_5f29e854ca9b7c758a57e5dd");
+
+        given(lotteryRepository.findByUserId(userId, new Date(1596600000000L), "5f29e854ca9b7c758a57e5dd", 3))
+                .willReturn(lotteryTicketList.subList(2, 3));
+
+        lotteryTicketPageReturned = lotteryService.getTicketsByUserId(userId, "1596600000000_5f29e854ca9b7c758a57e5dd", 2);
+        assertEquals(lotteryTicketPageReturned.getTickets().size(), 1);
+        assertNull(lotteryTicketPageReturned.getNextPageToken());
+    }
+
+    @Test
+    public void testGetTicketsByUserIdInvalidPageToken() {
+        assertThrows(IllegalArgumentException.class, () -> lotteryService.getTicketsByUserId("user1", "abc", 10));
+        assertThrows(IllegalArgumentException.class, () -> lotteryService.getTicketsByUserId("user1", "abc_5f29e854ca9b7c758a57e5dd", 10));
+        assertThrows(IllegalArgumentException.class, () -> lotteryService.getTicketsByUserId("user1", "1596600000000_abc", 10));
+    }
+
+    @Test
+    public void testGetTicketByIdValidScenario() {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = false;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        given(lotteryRepository.findById(id)).willReturn(Optional.of(lotteryTicket));
+
+        LotteryTicketResponse lotteryTicketReturned = lotteryService.getTicketById(id);
+        assertEquals(lotteryTicketReturned.getLines().size(), 2);
+        assertEquals(lotteryTicketReturned.getUserId(), userId);
+        assertEquals(lotteryTicketReturned.isStatusEnquired(), statusEnquired);
+        assertNotNull(lotteryTicketReturned.getCreatedDateTime());
+        assertNotNull(lotteryTicketReturned.getUpdatedDateTime());
+    }
+
+    @Test
+    public void testGetTicketByIdFromCache() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+
+        given(lotteryRepository.findById(id)).willReturn(Optional.of(lotteryTicket));
+
+        LotteryTicketResponse lotteryTicketReturned = lotteryService.getTicketById(id);
+        assertSame(lotteryService.getTicketById(id), lotteryTicketReturned);
+        verify(lotteryRepository, times(1)).findById(id);
+    }
+
+    @Test
+    public void testGetTicketByIdWithoutLines() {
+        String id = "id1";
+        LotteryTicket projection = new LotteryTicket();
+        projection.setId(id);
+        projection.setUserId("user1");
+        projection.setUpdatedDateTime(new Date());
+        projection.setStatusEnquired(true);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(projection));
+
+        LotteryTicketResponse lotteryTicketReturned = lotteryService.getTicketById(id, Set.of("userId"));
+        assertEquals(lotteryTicketReturned.getId(), id);
+        assertEquals(lotteryTicketReturned.getUserId(), "user1");
+        assertTrue(lotteryTicketReturned.isStatusEnquired());
+        assertNull(lotteryTicketReturned.getLines());
+        assertNull(lotteryTicketReturned.getUpdatedDateTime());
+        verify(lotteryRepository, times(0)).findById(id);
+    }
+
+    @Test
+    public void testGetTicketVersionById() {
+        Date updatedDateTime = new Date();
+        LotteryTicket projection = new LotteryTicket();
+        projection.setVersion(2L);
+        projection.setUpdatedDateTime(updatedDateTime);
+        projection.setStatusEnquired(true);
+
+        given(lotteryRepository.findVersionById("id1")).willReturn(Optional.of(projection));
+
+        LotteryTicketVersion version = lotteryService.getTicketVersionById("id1");
+        assertEquals(version.getVersion(), 2L);
+        assertEquals(version.getUpdatedDateTime(), updatedDateTime);
+        assertTrue(version.isStatusEnquired());
+        verify(lotteryRepository, times(0)).findById("id1");
+    }
+
+    @Test
+    public void testGetTicketVersionByIdFromCache() {
+        Date updatedDateTime = new Date();
+        LotteryTicketResponse cachedTicket = new LotteryTicketResponse("id1", List.of("000"), "user1", new Date(), updatedDateTime, false);
+        cachedTicket.setVersion(1L);
+        ticketCache.put(cachedTicket);
+
+        LotteryTicketVersion version = lotteryService.getTicketVersionById("id1");
+        assertEquals(version.getVersion(), 1L);
+        assertEquals(version.getUpdatedDateTime(), updatedDateTime);
+        assertFalse(version.isStatusEnquired());
+        verify(lotteryRepository, times(0)).findVersionById("id1");
+    }
+
+    @Test
+    public void testUpdateTicketRefreshesCache() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+        ticketCache.put(new LotteryTicketResponse(id, List.of("000"), userId, new Date(), new Date(), false));
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        given(lotteryRepository.updateLines(eq(id), eq(0L), any(PackedLines.class), any(Date.class))).willReturn(true);
+
+        lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("000", "002"), userId));
+        assertEquals(lotteryService.getTicketById(id).getLines(), List.of("000", "002"));
+    }
+
+    @Test
+    public void testGetTicketByIdDoesNotCacheStaleRead() {
+        String id = "id1";
+        String userId = "user1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+        lotteryTicket.setVersion(1L);
+        LotteryTicketResponse updated = new LotteryTicketResponse(id, List.of("000", "002"), userId, new Date(), new Date(), false);
+        updated.setVersion(2L);
+
+        // The ticket is updated and cached while the reader is reading version 1 from the DB
+        given(lotteryRepository.findById(id)).willAnswer(invocation -> {
+            ticketCache.put(updated);
+            return Optional.of(lotteryTicket);
+        });
+
+        assertEquals(lotteryService.getTicketById(id).getVersion(), 1L);
+        assertSame(ticketCache.get(id), updated);
+    }
+
+    @Test
+    public void testGetTicketByIdNotPresentInDB() {
+        String id = "id1";
+        given(lotteryRepository.findById(id)).willReturn(Optional.empty());
+        try {
+            lotteryService.getTicketById(id);
+        } catch (NoSuchElementException e) {
+            assertTrue(true);
+        }
+    }
+
+    @Test
+    public void testGetTicketSummary() throws AccessDeniedException {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(
+                new Line("000", 5),
+                new Line("002", 10),
+                new Line("011", 10),
+                new Line("012", 1)), "user1", new Date(), new Date(), true);
+        LotteryTicket projection = new LotteryTicket();
+        projection.setStatusEnquired(true);
+        projection.setSummary(lotteryTicket.getSummary());
+
+        given(lotteryRepository.findSummaryById(id)).willReturn(Optional.of(projection));
+
+        LotteryTicketSummaryResponse summary = lotteryService.getTicketSummary(id);
+        assertEquals(summary.getId(), id);
+        assertEquals(summary.getLineCount(), 4);
+        assertEquals(summary.getTotalScore(), 26);
+        assertEquals(summary.getMaxResult(), 10);
+        assertEquals(summary.getResult0Count(), 0);
+        assertEquals(summary.getResult1Count(), 1);
+        assertEquals(summary.getResult5Count(), 1);
+        assertEquals(summary.getResult10Count(), 2);
+        // The lines are never loaded
+        verify(lotteryRepository, times(0)).findById(id);
+    }
+
+    @Test
+    public void testGetTicketSummaryOfTicketWithoutSummary() throws AccessDeniedException {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("001", 0), new Line("111", 5)), "user1", new Date(), new Date(), true);
+        LotteryTicket projection = new LotteryTicket();
+        projection.setStatusEnquired(true);
+
+        given(lotteryRepository.findSummaryById(id)).willReturn(Optional.of(projection));
+        given(lotteryRepository.findById(id)).willReturn(Optional.of(lotteryTicket));
+
+        LotteryTicketSummaryResponse summary = lotteryService.getTicketSummary(id);
+        assertEquals(summary.getTotalScore(), 5);
+        assertEquals(summary.getResult0Count(), 1);
+    }
+
+    @Test
+    public void testGetTicketSummaryBeforeStatusCheck() {
+        LotteryTicket projection = new LotteryTicket();
+        projection.setStatusEnquired(false);
+
+        given(lotteryRepository.findSummaryById("id1")).willReturn(Optional.of(projection));
+
+        assertThrows(AccessDeniedException.class, () -> lotteryService.getTicketSummary("id1"));
+    }
+
+    @Test
+    public void testGetTicketLines() throws AccessDeniedException {
+        String id = "id1";
+        LotteryTicket projection = new LotteryTicket();
+        projection.setStatusEnquired(true);
+        projection.setPackedLines(PackedLines.fromNumbers(List.of("000", "012", "002", "111", "011")));
+
+        given(lotteryRepository.findLinesById(id)).willReturn(Optional.of(projection));
+
+        LotteryTicketLinesResponse top = lotteryService.getTicketLines(id, null, 0, 2);
+        assertEquals(top.getId(), id);
+        assertEquals(top.getLineCount(), 5);
+        assertEquals(top.getSkip(), 0);
+        assertEquals(top.getLines().size(), 2);
+        assertEquals(top.getLines().get(0).getNumbers(), "002");
+        assertEquals(top.getLines().get(1).getNumbers(), "011");
+        assertEquals(top.getLines().get(1).getResult(), 10);
+
+        LotteryTicketLinesResponse next = lotteryService.getTicketLines(id, "desc", 2, 2);
+        assertEquals(next.getLines().get(0).getNumbers(), "000");
+        assertEquals(next.getLines().get(1).getNumbers(), "111");
+
+        LotteryTicketLinesResponse ascending = lotteryService.getTicketLines(id, "asc", 0, 10);
+        assertEquals(ascending.getLines().size(), 5);
+        assertEquals(ascending.getLines().get(0).getNumbers(), "012");
+        assertEquals(ascending.getLines().get(0).getResult(), 1);
+
+        assertTrue(lotteryService.getTicketLines(id, "asc", 5, 10).getLines().isEmpty());
+        verify(lotteryRepository, times(0)).findById(id);
+    }
+
+    @Test
+    public void testGetTicketLinesBeforeStatusCheck() {
+        LotteryTicket projection = new LotteryTicket();
+        projection.setStatusEnquired(false);
+        projection.setPackedLines(PackedLines.fromNumbers(List.of("000")));
+
+        given(lotteryRepository.findLinesById("id1")).willReturn(Optional.of(projection));
+
+        assertThrows(AccessDeniedException.class, () -> lotteryService.getTicketLines("id1", null, 0, 10));
+    }
+
+    @Test
+    public void testSaveTicket() {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("012", 1),
+                new Line("001", 0),
+                new Line("002", 10));
+        boolean statusEnquired = false;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012" , "001" , "002"), userId);
+
+        given(lotteryRepository.save(any(LotteryTicket.class))).willReturn(lotteryTicket);
+
+        LotteryTicketResponse lotteryTicketReturned = lotteryService.saveTicket(request);
+        ArgumentCaptor<LotteryTicket> saved = ArgumentCaptor.forClass(LotteryTicket.class);
+        verify(lotteryRepository).save(saved.capture());
+        assertNotNull(lotteryTicketReturned.getId());
+        assertEquals(saved.getValue().getId(), lotteryTicketReturned.getId());
+        assertEquals(lotteryTicketReturned.getLines().size(), 4);
+        assertEquals(meterRegistry.get(LotteryMetrics.TICKET_LINES).summary().count(), 1);
+        assertEquals(meterRegistry.get(LotteryMetrics.TICKET_LINES).summary().totalAmount(), 4.0);
+        verify(ticketStatsService).recordCreated(any(Date.class), eq(1));
+        assertEquals(lotteryTicketReturned.getUserId(), userId);
+        assertEquals(lotteryTicketReturned.isStatusEnquired(), statusEnquired);
+        assertNotNull(lotteryTicketReturned.getCreatedDateTime());
+        assertNotNull(lotteryTicketReturned.getUpdatedDateTime());
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKey() throws IdempotencyKeyConflictException {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        PackedLines lines = PackedLines.fromNumbers(request.getLines());
+        given(lotteryRepository.save(any(LotteryTicket.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        LotteryTicketResponse created = lotteryService.saveTicket(request, lines, "key1");
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).insert(record.capture());
+        assertEquals(record.getValue().getId(), new IdempotencyRecord.Key("user1", "key1"));
+        assertEquals(record.getValue().getTicketId(), created.getId());
+        assertEquals(record.getValue().getFingerprint(), IdempotencyRecord.fingerprint("user1", lines));
+        assertEquals(record.getValue().getPendingUntil().getTime() - created.getCreatedDateTime().getTime(), Duration.ofSeconds(30).toMillis());
+        assertEquals(record.getValue().getExpiresAt().getTime() - created.getCreatedDateTime().getTime(), Duration.ofHours(24).toMillis());
+
+        // The retry is answered from the cache, without any DB call
+        LotteryTicketResponse retried = lotteryService.saveTicket(request, PackedLines.fromNumbers(request.getLines()), "key1");
+        assertSame(retried, created);
+        verify(lotteryRepository, times(1)).save(any(LotteryTicket.class));
+        verify(idempotencyRepository, times(1)).insert(any(IdempotencyRecord.class));
+
+        LotteryTicketRequest otherRequest = new LotteryTicketRequest(List.of("000"), "user1");
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> lotteryService.saveTicket(otherRequest, PackedLines.fromNumbers(otherRequest.getLines()), "key1"));
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyOfAnotherUser() throws IdempotencyKeyConflictException {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        LotteryTicketRequest otherUserRequest = new LotteryTicketRequest(List.of("000", "012"), "user2");
+        given(lotteryRepository.save(any(LotteryTicket.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        LotteryTicketResponse created = lotteryService.saveTicket(request, PackedLines.fromNumbers(request.getLines()), "key1");
+        LotteryTicketResponse otherUserCreated = lotteryService.saveTicket(otherUserRequest,
+                PackedLines.fromNumbers(otherUserRequest.getLines()), "key1");
+        assertNotEquals(otherUserCreated.getId(), created.getId());
+        assertEquals(otherUserCreated.getUserId(), "user2");
+        ArgumentCaptor<IdempotencyRecord> records = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository, times(2)).insert(records.capture());
+        assertEquals(records.getAllValues().get(1).getId(), new IdempotencyRecord.Key("user2", "key1"));
+        verify(lotteryRepository, times(2)).save(any(LotteryTicket.class));
+    }
+
+    @Test
+    public void testIdempotencyFingerprint() {
+        PackedLines lines = PackedLines.fromNumbers(List.of("000", "012"));
+        String fingerprint = IdempotencyRecord.fingerprint("user1", lines);
+        // Base64 of a SHA-256 digest
+        assertEquals(fingerprint.length(), 44);
+        assertEquals(IdempotencyRecord.fingerprint("user1", PackedLines.fromNumbers(List.of("000", "012"))), fingerprint);
+        assertNotEquals(IdempotencyRecord.fingerprint("user2", lines), fingerprint);
+        assertNotEquals(IdempotencyRecord.fingerprint("user1", PackedLines.fromNumbers(List.of("012", "000"))), fingerprint);
+        // The user id is length prefixed, so its bytes can not be confused with line codes
+        assertNotEquals(IdempotencyRecord.fingerprint("user1\u0000", PackedLines.fromNumbers(List.of("012"))),
+                IdempotencyRecord.fingerprint("user1", PackedLines.fromNumbers(List.of("000", "012"))));
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyAlreadyInDB() throws IdempotencyKeyConflictException {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "012"), "user1");
+        PackedLines lines = PackedLines.fromNumbers(request.getLines());
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, "user1", new Date(), new Date(), false);
+        lotteryTicket.setId("id1");
+
+        given(idempotencyRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("duplicate key"));
+        given(idempotencyRepository.findById(new IdempotencyRecord.Key("user1", "key1"))).willReturn(Optional.of(
+                new IdempotencyRecord(new IdempotencyRecord.Key("user1", "key1"), IdempotencyRecord.fingerprint("user1", lines), "id1", new Date(), new Date())));
+        given(lotteryRepository.findById("id1")).willReturn(Optional.of(lotteryTicket));
+
+        LotteryTicketResponse retried = lotteryService.saveTicket(request, lines, "key1");
+        assertEquals(retried.getId(), "id1");
+        verify(lotteryRepository, times(0)).save(any(LotteryTicket.class));
+        assertSame(idempotencyCache.get(new IdempotencyRecord.Key("user1", "key1")).getTicket(), retried);
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyInProgress() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        PackedLines lines = PackedLines.fromNumbers(request.getLines());
+        Date pendingUntil = new Date(System.currentTimeMillis() + Duration.ofSeconds(30).toMillis());
+
+        given(idempotencyRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("duplicate key"));
+        given(idempotencyRepository.findById(new IdempotencyRecord.Key("user1", "key1"))).willReturn(Optional.of(
+                new IdempotencyRecord(new IdempotencyRecord.Key("user1", "key1"), IdempotencyRecord.fingerprint("user1", lines), "id1", pendingUntil, new Date())));
+        given(lotteryRepository.findById("id1")).willReturn(Optional.empty());
+
+        IdempotencyKeyConflictException e = assertThrows(IdempotencyKeyConflictException.class,
+                () -> lotteryService.saveTicket(request, lines, "key1"));
+        assertEquals(e.getMessage(), "A request with this Idempotency-Key is in progress");
+        verify(idempotencyRepository, times(0)).takeOver(any(IdempotencyRecord.class), anyString());
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyTakenOverAfterLease() throws IdempotencyKeyConflictException {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        PackedLines lines = PackedLines.fromNumbers(request.getLines());
+        Date pendingUntil = new Date(System.currentTimeMillis() - 1);
+
+        // The request that reserved the key failed without creating ticket id1 or releasing the key
+        given(idempotencyRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("duplicate key"));
+        given(idempotencyRepository.findById(new IdempotencyRecord.Key("user1", "key1"))).willReturn(Optional.of(
+                new IdempotencyRecord(new IdempotencyRecord.Key("user1", "key1"), IdempotencyRecord.fingerprint("user1", lines), "id1", pendingUntil, new Date())));
+        given(lotteryRepository.findById("id1")).willReturn(Optional.empty());
+        given(idempotencyRepository.takeOver(any(IdempotencyRecord.class), eq("id1"))).willReturn(true);
+        given(lotteryRepository.save(any(LotteryTicket.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        LotteryTicketResponse created = lotteryService.saveTicket(request, lines, "key1");
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).takeOver(record.capture(), eq("id1"));
+        assertEquals(record.getValue().getTicketId(), created.getId());
+        assertTrue(record.getValue().isPending(created.getCreatedDateTime()));
+        verify(lotteryRepository).save(any(LotteryTicket.class));
+        assertSame(idempotencyCache.get(new IdempotencyRecord.Key("user1", "key1")).getTicket(), created);
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyTakenOverConcurrently() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        PackedLines lines = PackedLines.fromNumbers(request.getLines());
+
+        given(idempotencyRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("duplicate key"));
+        given(idempotencyRepository.findById(new IdempotencyRecord.Key("user1", "key1"))).willReturn(Optional.of(
+                new IdempotencyRecord(new IdempotencyRecord.Key("user1", "key1"), IdempotencyRecord.fingerprint("user1", lines), "id1", null, new Date())));
+        given(lotteryRepository.findById("id1")).willReturn(Optional.empty());
+        // Another retry took the key over first
+        given(idempotencyRepository.takeOver(any(IdempotencyRecord.class), eq("id1"))).willReturn(false);
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> lotteryService.saveTicket(request, lines, "key1"));
+        verify(lotteryRepository, times(0)).save(any(LotteryTicket.class));
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyReleasedOnFailure() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        given(lotteryRepository.save(any(LotteryTicket.class))).willThrow(new DataAccessResourceFailureException("timeout"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> lotteryService.saveTicket(request, PackedLines.fromNumbers(request.getLines()), "key1"));
+        ArgumentCaptor<IdempotencyRecord> inserted = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).insert(inserted.capture());
+        verify(idempotencyRepository).release(inserted.getValue());
+        assertNull(idempotencyCache.get(new IdempotencyRecord.Key("user1", "key1")));
+    }
+
+    @Test
+    public void testSaveTicketWithIdempotencyKeyReleaseFailure() {
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        DataAccessResourceFailureException saveFailure = new DataAccessResourceFailureException("timeout");
+        given(lotteryRepository.save(any(LotteryTicket.class))).willThrow(saveFailure);
+        given(idempotencyRepository.release(any(IdempotencyRecord.class))).willThrow(new DataAccessResourceFailureException("down"));
+
+        // The failure of the save is reported, the reservation is left to expire with its lease
+        DataAccessResourceFailureException e = assertThrows(DataAccessResourceFailureException.class,
+                () -> lotteryService.saveTicket(request, PackedLines.fromNumbers(request.getLines()), "key1"));
+        assertSame(e, saveFailure);
+        assertEquals(e.getSuppressed().length, 1);
+    }
+
+    @Test
+    public void testSaveTickets() {
+        List<LotteryTicketRequest> requests = List.of(
+                new LotteryTicketRequest(List.of("000", "012"), "user1"),
+                new LotteryTicketRequest(List.of("002"), "user2"),
+                new LotteryTicketRequest(List.of("111"), "user3"));
+
+        given(lotteryRepository.insertAllUnordered(anyList())).willReturn(Map.of(1, "duplicate key"));
+
+        List<LotteryTicketBatchResult> results = lotteryService.saveTickets(requests);
+        assertEquals(results.size(), 3);
+        assertNotNull(results.get(0).getId());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getId());
+        assertEquals(results.get(1).getError(), "duplicate key");
+        // Only the created tickets are recorded
+        assertEquals(meterRegistry.get(LotteryMetrics.TICKET_LINES).summary().count(), 2);
+        verify(ticketStatsService).recordCreated(any(Date.class), eq(2));
+        assertNotNull(results.get(2).getId());
+        assertNotEquals(results.get(0).getId(), results.get(2).getId());
+    }
+
+    @Test
+    public void testUpdateTicketValidScenario() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = false;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        given(lotteryRepository.updateLines(eq(id), eq(0L), any(PackedLines.class), any(Date.class))).willReturn(true);
+
+        LotteryTicketResponse lotteryTicketReturned = lotteryService.updateTicket(id, 0L, request);
+        assertEquals(lotteryTicketReturned.getLines().size(), 2);
+        verify(ticketStatsService).recordUpdated(lotteryTicketReturned.getUpdatedDateTime());
+        assertEquals(lotteryTicketReturned.getUserId(), userId);
+        assertEquals(lotteryTicketReturned.isStatusEnquired(), statusEnquired);
+        assertNotNull(lotteryTicketReturned.getCreatedDateTime());
+        assertNotNull(lotteryTicketReturned.getUpdatedDateTime());
+    }
+
+    @Test
+    public void testUpdateTicketIdNotPresentInDB() {
+        String id = "id1";
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), id);
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.empty());
+        try {
+            lotteryService.updateTicket(id, 0L, request);
+        } catch (NoSuchElementException | AccessDeniedException e) {
+            assertTrue(true);
+        }
+    }
+
+    @Test
+    public void testUpdateTicketInvalidUser() {
+        String id = "id1";
+        String userId = "user1";
+        String userIdAnother = "user2";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = false;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userIdAnother);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        try {
+            lotteryService.updateTicket(id, 0L, request);
+        } catch (AccessDeniedException e) {
+            assertTrue(e.getMessage().equalsIgnoreCase("Access Denied"));;
+        }
+    }
+
+    @Test
+    public void testUpdateTicketUserIdIsCaseSensitive() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+
+        AccessDeniedException e = assertThrows(AccessDeniedException.class,
+                () -> lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("000", "002"), "USER1")));
+        assertEquals(e.getMessage(), "Access Denied");
+        verify(lotteryRepository, times(0)).updateLines(anyString(), anyLong(), any(PackedLines.class), any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketConcurrentUpdate() {
+        String id = "id1";
+        String userId = "user1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+        lotteryTicket.setVersion(3L);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        given(lotteryRepository.updateLines(eq(id), eq(3L), any(PackedLines.class), any(Date.class))).willReturn(false);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> lotteryService.updateTicket(id, 3L, request));
+        verify(ticketStatsService, times(0)).recordUpdated(any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketWithoutVersion() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+        lotteryTicket.setVersion(3L);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        given(lotteryRepository.updateLines(eq(id), eq(3L), any(PackedLines.class), any(Date.class))).willReturn(true);
+
+        // Without the version of the client, the version just read is updated
+        LotteryTicketResponse response = lotteryService.updateTicket(id, null, new LotteryTicketRequest(List.of("000", "002"), userId));
+        assertEquals(response.getVersion(), 4L);
+        verify(lotteryRepository).updateLines(eq(id), eq(3L), any(PackedLines.class), any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketSequentialStalePuts() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        AtomicLong storedVersion = new AtomicLong(0);
+        given(lotteryRepository.findWithoutLinesById(id)).willAnswer(invocation -> {
+            LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+            lotteryTicket.setId(id);
+            lotteryTicket.setVersion(storedVersion.get());
+            return Optional.of(lotteryTicket);
+        });
+        given(lotteryRepository.updateLines(eq(id), anyLong(), any(PackedLines.class), any(Date.class))).willAnswer(invocation ->
+                storedVersion.compareAndSet(invocation.getArgument(1), invocation.<Long>getArgument(1) + 1));
+
+        // Two clients read version 0, then update the ticket one after the other
+        LotteryTicketResponse first = lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("000", "002"), userId));
+        assertEquals(first.getVersion(), 1L);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("000", "011"), userId)));
+        assertEquals(storedVersion.get(), 1L);
+        verify(lotteryRepository, times(1)).updateLines(eq(id), anyLong(), any(PackedLines.class), any(Date.class));
+
+        LotteryTicketResponse second = lotteryService.updateTicket(id, 1L, new LotteryTicketRequest(List.of("000", "011"), userId));
+        assertEquals(second.getVersion(), 2L);
+    }
+
+    @Test
+    public void testUpdateTicketStatusCheckedConcurrently() {
+        String id = "id1";
+        String userId = "user1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), false);
+        LotteryTicket statusCheckedTicket = new LotteryTicket(List.of(new Line("000", 5)), userId, new Date(), new Date(), true);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket), Optional.of(statusCheckedTicket));
+        given(lotteryRepository.updateLines(eq(id), eq(0L), any(PackedLines.class), any(Date.class))).willReturn(false);
+
+        AccessDeniedException e = assertThrows(AccessDeniedException.class, () -> lotteryService.updateTicket(id, 0L, request));
+        assertTrue(e.getMessage().equalsIgnoreCase("Updates not possible after status check"));
+    }
+
+    @Test
+    public void testUpdateTicketAfterStatusCheck() {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = true;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+
+        try {
+            lotteryService.updateTicket(id, 0L, request);
+        } catch (AccessDeniedException e) {
+            assertTrue(e.getMessage().equalsIgnoreCase("Updates not possible after status check"));;
+        }
+    }
+
+    @Test
+    public void testUpdateTicketStatusValidScenarioSortAscending() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = true;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.markStatusEnquired(eq(id), eq(userId), any(Date.class))).willReturn(lotteryTicket);
+
+        LotteryTicket lotteryTicketReturned = lotteryService.updateTicketStatus(id, "asc",request);
+        assertEquals(lotteryTicketReturned.getLines().size(), 2);
+        verify(ticketStatsService).recordStatusChecked(eq(lotteryTicket.getUpdatedDateTime()), any(TicketSummary.class));
+        assertEquals(lotteryTicketReturned.getLines().get(0).getNumbers(), "000");
+        assertEquals(lotteryTicketReturned.getUserId(), userId);
+        assertEquals(lotteryTicketReturned.getStatusEnquired(), true);
+        assertNotNull(lotteryTicketReturned.getCreatedDateTime());
+        assertNotNull(lotteryTicketReturned.getUpdatedDateTime());
+    }
+
+    @Test
+    public void testUpdateTicketStatusValidScenarioSortDesending() throws AccessDeniedException {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = true;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.markStatusEnquired(eq(id), eq(userId), any(Date.class))).willReturn(lotteryTicket);
+
+        LotteryTicket lotteryTicketReturned = lotteryService.updateTicketStatus(id, "desc",request);
+        assertEquals(lotteryTicketReturned.getLines().size(), 2);
+        assertEquals(lotteryTicketReturned.getLines().get(0).getNumbers(), "002");
+        assertEquals(lotteryTicketReturned.getUserId(), userId);
+        assertEquals(lotteryTicketReturned.getStatusEnquired(), true);
+        assertNotNull(lotteryTicketReturned.getCreatedDateTime());
+        assertNotNull(lotteryTicketReturned.getUpdatedDateTime());
+    }
+
+    @Test
+    public void testSortTicketsByLinesKeepsSummary() {
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5), new Line("002", 10)), "user1", new Date(), new Date(), true);
+        TicketSummary summary = lotteryTicket.getSummary();
+
+        LotteryTicket sortedTicket = LotteryService.sortTicketsByLines(lotteryTicket, "desc");
+        assertEquals(sortedTicket.getLines().get(0).getNumbers(), "002");
+        // The lines are only reordered, the summary is not computed again
+        assertSame(sortedTicket.getSummary(), summary);
+    }
+
+    @Test
+    public void testUpdateTicketStatusIdNotPresentInDB() {
+        String id = "id1";
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), id);
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.empty());
+        assertThrows(NoSuchElementException.class, () -> lotteryService.updateTicketStatus(id, null, request));
+    }
+
+    @Test
+    public void testUpdateStatusTicketInvalidUser() {
+        String id = "id1";
+        String userId = "user1";
+        String userIdAnother = "user2";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = false;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userIdAnother);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        AccessDeniedException e = assertThrows(AccessDeniedException.class, () -> lotteryService.updateTicketStatus(id, null, request));
+        assertTrue(e.getMessage().equalsIgnoreCase("Access Denied"));
+    }
+
+    @Test
+    public void testUpdateTicketStatusAfterStatusCheck() {
+        String id = "id1";
+        String userId = "user1";
+        List<Line> lines = List.of(
+                new Line("000", 5),
+                new Line("002", 10));
+        boolean statusEnquired = true;
+
+        LotteryTicket lotteryTicket = new LotteryTicket(lines, userId, new Date(), new Date(), statusEnquired);
+
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000", "002"), userId);
+
+        given(lotteryRepository.findWithoutLinesById(id)).willReturn(Optional.of(lotteryTicket));
+        AccessDeniedException e = assertThrows(AccessDeniedException.class, () -> lotteryService.updateTicketStatus(id, null, request));
+        assertTrue(e.getMessage().equalsIgnoreCase("Updates not possible after status check"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.cache.IdempotencyCache;
+import com.example.lotterymgmtapi.cache.TicketCache;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.entity.LotteryTicketResponse;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.IdempotencyRecord;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.repository.IdempotencyRepository;
+import com.example.lotterymgmtapi.repository.LotteryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class LotteryServiceWriteBehindTest {
+    @Mock
+    private LotteryRepository lotteryRepository;
+
+    @Spy
+    private TicketCache ticketCache = new TicketCache(100, Duration.ofMinutes(10));
+
+    @Spy
+    private LotteryMetrics lotteryMetrics = new LotteryMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private TicketStatsService ticketStatsService;
+
+    @Mock
+    private IdempotencyRepository idempotencyRepository;
+
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(100, Duration.ofHours(24), Duration.ofSeconds(30));
+
+    @Mock
+    private TicketWriteBehind ticketWriteBehind;
+
+    @Spy
+    private TicketIdGenerator ticketIdGenerator = new TicketIdGenerator();
+
+    @InjectMocks
+    private LotteryService lotteryService;
+
+    @Test
+    public void testSaveTicketWaitsForCommit() {
+        given(ticketWriteBehind.isWaitForCommit()).willReturn(true);
+        given(ticketWriteBehind.submit(any(LotteryTicket.class))).willReturn(CompletableFuture.completedFuture(null));
+
+        LotteryTicketResponse response = lotteryService.saveTicket(new LotteryTicketRequest(List.of("000", "012"), "user1"));
+        assertNotNull(response.getId());
+        assertEquals(response.getLines(), List.of("000", "012"));
+        assertSame(ticketCache.get(response.getId()), response);
+        assertFalse(lotteryService.isCreationAcknowledgedOnEnqueue());
+        verify(lotteryRepository, times(0)).save(any(LotteryTicket.class));
+        verifyNoInteractions(ticketStatsService);
+    }
+
+    @Test
+    public void testSaveTicketCommitFailed() {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        committed.completeExceptionally(new DataIntegrityViolationException("E11000 duplicate key error"));
+        given(ticketWriteBehind.isWaitForCommit()).willReturn(true);
+        given(ticketWriteBehind.submit(any(LotteryTicket.class))).willReturn(committed);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> lotteryService.saveTicket(new LotteryTicketRequest(List.of("000"), "user1")));
+        assertEquals(ticketCache.size(), 0);
+    }
+
+    @Test
+    public void testSaveTicketAcknowledgedOnEnqueue() {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        given(ticketWriteBehind.isWaitForCommit()).willReturn(false);
+        given(ticketWriteBehind.submit(any(LotteryTicket.class))).willReturn(committed);
+
+        LotteryTicketResponse response = lotteryService.saveTicket(new LotteryTicketRequest(List.of("000"), "user1"));
+        assertSame(ticketCache.get(response.getId()), response);
+        assertTrue(lotteryService.isCreationAcknowledgedOnEnqueue());
+
+        committed.completeExceptionally(new DataIntegrityViolationException("E11000 duplicate key error"));
+        assertNull(ticketCache.get(response.getId()));
+    }
+
+    @Test
+    public void testIdempotencyKeyReleasedWhenAcknowledgedTicketIsLost() throws IdempotencyKeyConflictException {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        given(ticketWriteBehind.isWaitForCommit()).willReturn(false);
+        given(ticketWriteBehind.submit(any(LotteryTicket.class))).willReturn(committed);
+        LotteryTicketRequest request = new LotteryTicketRequest(List.of("000"), "user1");
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key("user1", "key1");
+
+        LotteryTicketResponse response = lotteryService.saveTicket(request, PackedLines.fromNumbers(request.getLines()), "key1");
+        assertSame(idempotencyCache.get(key).getTicket(), response);
+        verify(idempotencyRepository, times(0)).release(any(IdempotencyRecord.class));
+
+        committed.completeExceptionally(new DataIntegrityViolationException("E11000 duplicate key error"));
+        assertNull(ticketCache.get(response.getId()));
+        assertNull(idempotencyCache.get(key));
+        verify(idempotencyRepository).release(argThat(record -> record.getId().equals(key) && record.getTicketId().equals(response.getId())));
+    }
+
+    @Test
+    public void testSaveTicketQueueFull() {
+        given(ticketWriteBehind.submit(any(LotteryTicket.class))).willThrow(new TicketQueueFullException("Ticket queue is full, retry later"));
+
+        assertThrows(TicketQueueFullException.class,
+                () -> lotteryService.saveTicket(new LotteryTicketRequest(List.of("000"), "user1")));
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.cache.TicketCache;
+import com.example.lotterymgmtapi.entity.LotteryTicketRequest;
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.ReactiveLotteryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.AccessDeniedException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveLotteryServiceTest {
+    @Mock
+    private ReactiveLotteryRepository reactiveLotteryRepository;
+
+    @Spy
+    private TicketCache ticketCache = new TicketCache(100, Duration.ofMinutes(10));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LotteryMetrics lotteryMetrics = new LotteryMetrics(meterRegistry);
+
+    @Spy
+    private TicketIdGenerator ticketIdGenerator = new TicketIdGenerator();
+
+    @Mock
+    private TicketStatsService ticketStatsService;
+
+    @InjectMocks
+    private ReactiveLotteryService lotteryService;
+
+    @Test
+    public void testGetAllTickets() {
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId("5f29e3c036e952151b624571");
+
+        given(reactiveLotteryRepository.findAllBy(any(Pageable.class))).willReturn(Flux.just(lotteryTicket));
+
+        StepVerifier.create(lotteryService.getAllTickets(null, 10))
+                .assertNext(page -> {
+                    assertEquals(page.getTickets().size(), 1);
+                    assertNull(page.getNextPageToken());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetTicketByIdNotPresentInDB() {
+        given(reactiveLotteryRepository.findById("id1")).willReturn(Mono.empty());
+        StepVerifier.create(lotteryService.getTicketById("id1"))
+                .verifyError(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testGetTicketByIdWithFields() {
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId("id1");
+        lotteryTicket.setVersion(2L);
+        given(reactiveLotteryRepository.findWithoutLinesById("id1")).willReturn(Mono.just(lotteryTicket));
+
+        // The lines are not loaded unless selected
+        StepVerifier.create(lotteryService.getTicketById("id1", Set.of("userId")))
+                .assertNext(response -> {
+                    assertEquals(response.getUserId(), "user1");
+                    assertNull(response.getLines());
+                    assertNull(response.getCreatedDateTime());
+                    assertEquals(response.getVersion(), 2L);
+                })
+                .verifyComplete();
+        verify(reactiveLotteryRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void testGetTicketVersionById() {
+        Date updatedDateTime = new Date();
+        LotteryTicket version = new LotteryTicket();
+        version.setId("id1");
+        version.setUpdatedDateTime(updatedDateTime);
+        version.setStatusEnquired(true);
+        given(reactiveLotteryRepository.findVersionById("id1")).willReturn(Mono.just(version));
+
+        StepVerifier.create(lotteryService.getTicketVersionById("id1"))
+                .assertNext(ticketVersion -> {
+                    // Tickets created without version are at version 0
+                    assertEquals(ticketVersion.getVersion(), 0L);
+                    assertEquals(ticketVersion.getUpdatedDateTime(), updatedDateTime);
+                    assertTrue(ticketVersion.isStatusEnquired());
+                })
+                .verifyComplete();
+
+        given(reactiveLotteryRepository.findVersionById("id2")).willReturn(Mono.empty());
+        StepVerifier.create(lotteryService.getTicketVersionById("id2"))
+                .verifyError(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testSaveTicket() {
+        given(reactiveLotteryRepository.save(any(LotteryTicket.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(lotteryService.saveTicket(new LotteryTicketRequest(List.of("000", "012"), "user1")))
+                .assertNext(response -> {
+                    assertEquals(response.getLines(), List.of("000", "012"));
+                    assertEquals(response.getUserId(), "user1");
+                    assertFalse(response.isStatusEnquired());
+                })
+                .verifyComplete();
+        verify(ticketStatsService).recordCreated(any(Date.class), eq(1));
+    }
+
+    @Test
+    public void testUpdateTicket() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+
+        given(reactiveLotteryRepository.findWithoutLinesById(id)).willReturn(Mono.just(lotteryTicket));
+        given(reactiveLotteryRepository.updateLines(eq(id), eq(0L), any(PackedLines.class), any(Date.class))).willReturn(Mono.just(true));
+
+        StepVerifier.create(lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("002"), "user1")))
+                .assertNext(response -> {
+                    assertEquals(response.getLines(), List.of("002"));
+                    assertEquals(response.getVersion(), 1L);
+                })
+                .verifyComplete();
+        verify(ticketStatsService).recordUpdated(any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketWithoutVersion() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+        lotteryTicket.setVersion(2L);
+
+        given(reactiveLotteryRepository.findWithoutLinesById(id)).willReturn(Mono.just(lotteryTicket));
+        given(reactiveLotteryRepository.updateLines(eq(id), eq(2L), any(PackedLines.class), any(Date.class))).willReturn(Mono.just(true));
+
+        StepVerifier.create(lotteryService.updateTicket(id, null, new LotteryTicketRequest(List.of("002"), "user1")))
+                .assertNext(response -> assertEquals(response.getVersion(), 3L))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testUpdateTicketConcurrentUpdate() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+
+        given(reactiveLotteryRepository.findWithoutLinesById(id)).willReturn(Mono.just(lotteryTicket));
+        given(reactiveLotteryRepository.updateLines(eq(id), eq(0L), any(PackedLines.class), any(Date.class))).willReturn(Mono.just(false));
+
+        StepVerifier.create(lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("002"), "user1")))
+                .verifyError(OptimisticLockingFailureException.class);
+        verify(ticketStatsService, never()).recordUpdated(any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketStaleVersion() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setVersion(1L);
+
+        given(reactiveLotteryRepository.findWithoutLinesById(id)).willReturn(Mono.just(lotteryTicket));
+
+        StepVerifier.create(lotteryService.updateTicket(id, 0L, new LotteryTicketRequest(List.of("002"), "user1")))
+                .verifyError(OptimisticLockingFailureException.class);
+        verify(reactiveLotteryRepository, never()).updateLines(anyString(), anyLong(), any(PackedLines.class), any(Date.class));
+    }
+
+    @Test
+    public void testUpdateTicketStatusSortDescending() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5), new Line("002", 10)), "user1", new Date(), new Date(), true);
+
+        given(reactiveLotteryRepository.markStatusEnquired(eq(id), eq("user1"), any(Date.class))).willReturn(Mono.just(lotteryTicket));
+
+        StepVerifier.create(lotteryService.updateTicketStatus(id, "desc", new LotteryTicketRequest(List.of(), "user1")))
+                .assertNext(ticket -> assertEquals(ticket.getLines().get(0).getNumbers(), "002"))
+                .verifyComplete();
+        ArgumentCaptor<TicketSummary> summary = ArgumentCaptor.forClass(TicketSummary.class);
+        verify(ticketStatsService).recordStatusChecked(any(Date.class), summary.capture());
+        assertEquals(summary.getValue().getTotalScore(), 15);
+    }
+
+    @Test
+    public void testUpdateTicketStatusInvalidUser() {
+        String id = "id1";
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+
+        given(reactiveLotteryRepository.markStatusEnquired(eq(id), eq("user2"), any(Date.class))).willReturn(Mono.empty());
+        given(reactiveLotteryRepository.findWithoutLinesById(id)).willReturn(Mono.just(lotteryTicket));
+
+        StepVerifier.create(lotteryService.updateTicketStatus(id, null, new LotteryTicketRequest(List.of(), "user2")))
+                .verifyErrorMatches(e -> e instanceof AccessDeniedException && e.getMessage().equalsIgnoreCase("Access Denied"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.lotterymgmtapi.service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketIdGeneratorTest {
+
+    @Test
+    public void testNextIdIncreasing() {
+        AtomicLong now = new AtomicLong(1596614400123L);
+        TicketIdGenerator ticketIdGenerator = new TicketIdGenerator(now::get);
+
+        String first = ticketIdGenerator.nextId();
+        String second = ticketIdGenerator.nextId();
+        now.addAndGet(1000);
+        String third = ticketIdGenerator.nextId();
+
+        assertTrue(ObjectId.isValid(first));
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(third) < 0);
+        assertEquals(new ObjectId(first).getTimestamp(), 1596614400);
+        assertEquals(new ObjectId(third).getTimestamp(), 1596614401);
+    }
+
+    @Test
+    public void testNextIdClockBack() {
+        AtomicLong now = new AtomicLong(1596614400123L);
+        TicketIdGenerator ticketIdGenerator = new TicketIdGenerator(now::get);
+
+        String first = ticketIdGenerator.nextId();
+        now.addAndGet(-60000);
+        String second = ticketIdGenerator.nextId();
+
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(new ObjectId(second).getTimestamp(), 1596614400);
+    }
+}
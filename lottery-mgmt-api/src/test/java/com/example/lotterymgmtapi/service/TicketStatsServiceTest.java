@@ -0,0 +1,139 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.entity.TicketStatsResponse;
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.example.lotterymgmtapi.model.TicketStats;
+import com.example.lotterymgmtapi.model.TicketSummary;
+import com.example.lotterymgmtapi.repository.TicketStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketStatsServiceTest {
+    @Mock
+    private TicketStatsRepository ticketStatsRepository;
+
+    @InjectMocks
+    private TicketStatsService ticketStatsService;
+
+    @Test
+    public void testRecordCreated() {
+        ticketStatsService.recordCreated(Date.from(Instant.parse("2020-08-05T10:42:13Z")), 3);
+        verifyNoInteractions(ticketStatsRepository);
+        ticketStatsService.flush();
+
+        ArgumentCaptor<TicketStats> increment = ArgumentCaptor.forClass(TicketStats.class);
+        verify(ticketStatsRepository).increment(increment.capture());
+        assertEquals(increment.getValue().getPeriod(), Date.from(Instant.parse("2020-08-05T10:00:00Z")));
+        assertEquals(increment.getValue().getTicketsCreated(), 3);
+        assertEquals(increment.getValue().getLinesPlayed(), 0);
+    }
+
+    @Test
+    public void testRecordStatusChecked() {
+        TicketSummary summary = TicketSummary.of(PackedLines.fromNumbers(List.of("000", "002", "011", "012")));
+        ticketStatsService.recordStatusChecked(Date.from(Instant.parse("2020-08-05T23:59:59Z")), summary);
+        ticketStatsService.flush();
+
+        ArgumentCaptor<TicketStats> increment = ArgumentCaptor.forClass(TicketStats.class);
+        verify(ticketStatsRepository).increment(increment.capture());
+        assertEquals(increment.getValue().getPeriod(), Date.from(Instant.parse("2020-08-05T23:00:00Z")));
+        assertEquals(increment.getValue().getTicketsChecked(), 1);
+        assertEquals(increment.getValue().getLinesPlayed(), 4);
+        assertEquals(increment.getValue().getTotalScore(), 26);
+        assertEquals(increment.getValue().getResult0Count(), 0);
+        assertEquals(increment.getValue().getResult1Count(), 1);
+        assertEquals(increment.getValue().getResult5Count(), 1);
+        assertEquals(increment.getValue().getResult10Count(), 2);
+    }
+
+    @Test
+    public void testFlushWritesOneIncrementPerHour() {
+        Date hour = Date.from(Instant.parse("2020-08-05T10:00:00Z"));
+        ticketStatsService.recordCreated(Date.from(Instant.parse("2020-08-05T10:01:00Z")), 1);
+        ticketStatsService.recordCreated(Date.from(Instant.parse("2020-08-05T10:02:00Z")), 2);
+        ticketStatsService.recordUpdated(Date.from(Instant.parse("2020-08-05T10:03:00Z")));
+        ticketStatsService.recordUpdated(Date.from(Instant.parse("2020-08-05T11:03:00Z")));
+        ticketStatsService.flush();
+
+        ArgumentCaptor<TicketStats> increments = ArgumentCaptor.forClass(TicketStats.class);
+        verify(ticketStatsRepository, times(2)).increment(increments.capture());
+        TicketStats tenOClock = increments.getAllValues().stream().filter(stats -> stats.getPeriod().equals(hour)).findFirst().get();
+        assertEquals(tenOClock.getTicketsCreated(), 3);
+        assertEquals(tenOClock.getTicketsUpdated(), 1);
+
+        // Nothing recorded since the last flush
+        ticketStatsService.flush();
+        verify(ticketStatsRepository, times(2)).increment(any(TicketStats.class));
+    }
+
+    @Test
+    public void testFlushRetriesOnDBError() {
+        willThrow(new DataAccessResourceFailureException("timeout")).willDoNothing()
+                .given(ticketStatsRepository).increment(any(TicketStats.class));
+        ticketStatsService.recordUpdated(new Date());
+        assertDoesNotThrow(() -> ticketStatsService.flush());
+
+        ticketStatsService.recordUpdated(new Date());
+        ticketStatsService.flush();
+        ArgumentCaptor<TicketStats> increments = ArgumentCaptor.forClass(TicketStats.class);
+        verify(ticketStatsRepository, times(2)).increment(increments.capture());
+        assertEquals(increments.getAllValues().get(1).getTicketsUpdated(), 2);
+    }
+
+    @Test
+    public void testGetStatsPerHour() {
+        Date from = Date.from(Instant.parse("2020-08-05T10:30:00Z"));
+        Date to = Date.from(Instant.parse("2020-08-05T12:00:00Z"));
+        given(ticketStatsRepository.findByPeriodGreaterThanEqualAndPeriodLessThanOrderByPeriod(Date.from(Instant.parse("2020-08-05T10:00:00Z")), to))
+                .willReturn(List.of(hour("2020-08-05T10:00:00Z", 2), hour("2020-08-05T11:00:00Z", 3)));
+
+        List<TicketStatsResponse> stats = ticketStatsService.getStats(from, to, ChronoUnit.HOURS);
+        assertEquals(stats.size(), 2);
+        assertEquals(stats.get(0).getPeriodStart(), Date.from(Instant.parse("2020-08-05T10:00:00Z")));
+        assertEquals(stats.get(0).getPeriodEnd(), Date.from(Instant.parse("2020-08-05T11:00:00Z")));
+        assertEquals(stats.get(0).getTicketsCreated(), 2);
+        assertEquals(stats.get(1).getTicketsCreated(), 3);
+    }
+
+    @Test
+    public void testGetStatsPerDay() {
+        Date from = Date.from(Instant.parse("2020-08-05T10:30:00Z"));
+        Date to = Date.from(Instant.parse("2020-08-07T00:00:00Z"));
+        given(ticketStatsRepository.findByPeriodGreaterThanEqualAndPeriodLessThanOrderByPeriod(Date.from(Instant.parse("2020-08-05T00:00:00Z")), to))
+                .willReturn(List.of(hour("2020-08-05T10:00:00Z", 2), hour("2020-08-05T23:00:00Z", 3), hour("2020-08-06T00:00:00Z", 4)));
+
+        List<TicketStatsResponse> stats = ticketStatsService.getStats(from, to, ChronoUnit.DAYS);
+        assertEquals(stats.size(), 2);
+        assertEquals(stats.get(0).getPeriodStart(), Date.from(Instant.parse("2020-08-05T00:00:00Z")));
+        assertEquals(stats.get(0).getPeriodEnd(), Date.from(Instant.parse("2020-08-06T00:00:00Z")));
+        assertEquals(stats.get(0).getTicketsCreated(), 5);
+        assertEquals(stats.get(0).getLinesPlayed(), 50);
+        assertEquals(stats.get(1).getTicketsCreated(), 4);
+    }
+
+    private static TicketStats hour(String period, long tickets) {
+        TicketStats stats = new TicketStats(Date.from(Instant.parse(period)));
+        stats.setTicketsCreated(tickets);
+        stats.setLinesPlayed(tickets * 10);
+        return stats;
+    }
+}
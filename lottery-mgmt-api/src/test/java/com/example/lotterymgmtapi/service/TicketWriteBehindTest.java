@@ -0,0 +1,129 @@
+package com.example.lotterymgmtapi.service;
+
+import com.example.lotterymgmtapi.metrics.LotteryMetrics;
+import com.example.lotterymgmtapi.model.Line;
+import com.example.lotterymgmtapi.model.LotteryTicket;
+import com.example.lotterymgmtapi.repository.LotteryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketWriteBehindTest {
+    @Mock
+    private LotteryRepository lotteryRepository;
+
+    @Mock
+    private TicketStatsService ticketStatsService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LotteryMetrics lotteryMetrics = new LotteryMetrics(meterRegistry);
+
+    private TicketWriteBehind ticketWriteBehind(int queueCapacity, int batchSize) {
+        return new TicketWriteBehind(lotteryRepository, lotteryMetrics, ticketStatsService,
+                queueCapacity, batchSize, Duration.ofMillis(10), true);
+    }
+
+    private static LotteryTicket lotteryTicket(String id) {
+        LotteryTicket lotteryTicket = new LotteryTicket(List.of(new Line("000", 5)), "user1", new Date(), new Date(), false);
+        lotteryTicket.setId(id);
+        return lotteryTicket;
+    }
+
+    @Test
+    public void testNextBatch() throws InterruptedException {
+        TicketWriteBehind ticketWriteBehind = ticketWriteBehind(10, 2);
+        ticketWriteBehind.submit(lotteryTicket("id1"));
+        ticketWriteBehind.submit(lotteryTicket("id2"));
+        ticketWriteBehind.submit(lotteryTicket("id3"));
+
+        List<TicketWriteBehind.PendingTicket> batch = new ArrayList<>();
+        assertTrue(ticketWriteBehind.nextBatch(batch));
+        assertEquals(batch.size(), 2);
+        assertEquals(ticketWriteBehind.getQueueSize(), 1);
+
+        batch.clear();
+        assertTrue(ticketWriteBehind.nextBatch(batch));
+        assertEquals(batch.size(), 1);
+
+        batch.clear();
+        assertFalse(ticketWriteBehind.nextBatch(batch));
+    }
+
+    @Test
+    public void testSubmitQueueFull() {
+        TicketWriteBehind ticketWriteBehind = ticketWriteBehind(1, 10);
+        ticketWriteBehind.submit(lotteryTicket("id1"));
+
+        assertThrows(TicketQueueFullException.class, () -> ticketWriteBehind.submit(lotteryTicket("id2")));
+    }
+
+    @Test
+    public void testWrite() throws InterruptedException {
+        TicketWriteBehind ticketWriteBehind = ticketWriteBehind(10, 10);
+        CompletableFuture<Void> written = ticketWriteBehind.submit(lotteryTicket("id1"));
+        CompletableFuture<Void> failed = ticketWriteBehind.submit(lotteryTicket("id2"));
+        given(lotteryRepository.insertAllUnordered(anyList())).willReturn(Map.of(1, "E11000 duplicate key error"));
+
+        List<TicketWriteBehind.PendingTicket> batch = new ArrayList<>();
+        ticketWriteBehind.nextBatch(batch);
+        ticketWriteBehind.write(batch);
+
+        assertTrue(written.isDone());
+        assertFalse(written.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+        verify(ticketStatsService).recordCreated(any(Date.class), eq(1));
+        assertEquals(meterRegistry.get(LotteryMetrics.TICKET_LINES).summary().count(), 1);
+    }
+
+    @Test
+    public void testWriteBatchFailed() throws InterruptedException {
+        TicketWriteBehind ticketWriteBehind = ticketWriteBehind(10, 10);
+        CompletableFuture<Void> failed = ticketWriteBehind.submit(lotteryTicket("id1"));
+        given(lotteryRepository.insertAllUnordered(anyList())).willThrow(new DataAccessResourceFailureException("DB down"));
+
+        List<TicketWriteBehind.PendingTicket> batch = new ArrayList<>();
+        ticketWriteBehind.nextBatch(batch);
+        ticketWriteBehind.write(batch);
+
+        assertTrue(failed.isCompletedExceptionally());
+        verifyNoInteractions(ticketStatsService);
+    }
+
+    @Test
+    public void testWriterDrainsQueueOnStop() throws Exception {
+        TicketWriteBehind ticketWriteBehind = ticketWriteBehind(10, 10);
+        given(lotteryRepository.insertAllUnordered(anyList())).willReturn(Map.of());
+
+        ticketWriteBehind.start();
+        CompletableFuture<Void> written = ticketWriteBehind.submit(lotteryTicket("id1"));
+        ticketWriteBehind.stop();
+
+        assertFalse(ticketWriteBehind.isRunning());
+        written.get(1, TimeUnit.SECONDS);
+        assertEquals(ticketWriteBehind.getQueueSize(), 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.model.PackedLines;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineValidatorTest {
+
+    private final LineValidator lineValidator = new LineValidator();
+
+    @Test
+    public void testValidLines() {
+        LineValidationResult result = lineValidator.validate(List.of("000", "012", "222"));
+        assertTrue(result.isValid());
+        assertEquals(result.getLines(), PackedLines.fromNumbers(List.of("000", "012", "222")));
+        assertEquals(result.getLines().resultAt(1), 1);
+        assertNull(result.getMessage());
+    }
+
+    @Test
+    public void testFirstInvalidLineIsReported() {
+        LineValidationResult result = lineValidator.validate(List.of("000", "0123", "3", "2a2"));
+        assertFalse(result.isValid());
+        assertNull(result.getLines());
+        assertEquals(result.getInvalidIndex(), 1);
+        assertTrue(result.getMessage().contains("index 1"));
+    }
+
+    @Test
+    public void testInvalidCharacters() {
+        for (String line : List.of("", "00", "003", "0-1", "  0", "0٠١", "١٢٠")) {
+            assertFalse(lineValidator.validate(List.of("111", line)).isValid(), line);
+            assertEquals(lineValidator.validate(List.of("111", line)).getInvalidIndex(), 1, line);
+        }
+    }
+
+    @Test
+    public void testNullLine() {
+        List<String> lines = Arrays.asList("000", null);
+        assertEquals(lineValidator.validate(lines).getInvalidIndex(), 1);
+    }
+
+    @Test
+    public void testNoLines() {
+        assertEquals(lineValidator.validate(null).getInvalidIndex(), LineValidationResult.NO_LINES);
+        assertEquals(lineValidator.validate(new ArrayList<>()).getInvalidIndex(), LineValidationResult.NO_LINES);
+        assertFalse(lineValidator.validate(List.of()).isValid());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.lotterymgmtapi.validation;
+
+import com.example.lotterymgmtapi.model.PackedLines;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketRequestReaderTest {
+
+    private final TicketRequestReader reader = new TicketRequestReader(new ObjectMapper(), 100);
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadValidRequest() throws Exception {
+        ParsedTicketRequest request = reader.read(json("{\"lines\": [\"000\", \"012\", \"222\"], \"ignored\": {\"a\": [1]}, \"userId\": \"user1\"}"));
+        assertEquals(request.getUserId(), "user1");
+        assertEquals(request.getLines(), PackedLines.fromNumbers(List.of("000", "012", "222")));
+        assertEquals(request.toRequest().getLines(), List.of("000", "012", "222"));
+    }
+
+    @Test
+    public void testReadMissingUserId() throws Exception {
+        assertNull(reader.read(json("{\"lines\": [\"000\"]}")).getUserId());
+    }
+
+    @Test
+    public void testReadInvalidLine() {
+        InvalidTicketRequestException e = assertThrows(InvalidTicketRequestException.class,
+                () -> reader.read(json("{\"userId\": \"user1\", \"lines\": [\"000\", \"012\", 12, \"222\"]}")));
+        assertEquals(e.getLineIndex(), 2);
+
+        e = assertThrows(InvalidTicketRequestException.class,
+                () -> reader.read(json("{\"userId\": \"user1\", \"lines\": [\"000\", \"0123\"]}")));
+        assertEquals(e.getLineIndex(), 1);
+    }
+
+    @Test
+    public void testReadStopsAtFirstInvalidLine() {
+        // The rest of the body is never read, so it does not need to be valid JSON
+        InputStream body = new SequenceInputStream(json("{\"userId\": \"user1\", \"lines\": [\"000\", \"3\""),
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        throw new AssertionError("Body read after the first invalid line");
+                    }
+                });
+        InvalidTicketRequestException e = assertThrows(InvalidTicketRequestException.class, () -> reader.read(body));
+        assertEquals(e.getLineIndex(), 1);
+    }
+
+    @Test
+    public void testReadTooManyLines() throws Exception {
+        StringBuilder json = new StringBuilder("{\"userId\": \"user1\", \"lines\": [\"000\"");
+        for (int i = 1; i < 100; i++) {
+            json.append(", \"012\"");
+        }
+        assertEquals(reader.read(json(json + "]}")).getLines().size(), 100);
+
+        InvalidTicketRequestException e = assertThrows(InvalidTicketRequestException.class,
+                () -> reader.read(json(json + ", \"000\"]}")));
+        assertNull(e.getLineIndex());
+    }
+
+    @Test
+    public void testReadNoLines() {
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("{\"userId\": \"user1\"}")));
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("{\"userId\": \"user1\", \"lines\": []}")));
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("{\"userId\": \"user1\", \"lines\": null}")));
+    }
+
+    @Test
+    public void testReadMalformedBody() {
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("")));
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("[\"000\"]")));
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("{\"userId\": \"user1\", \"lines\": [\"000\"")));
+        assertThrows(InvalidTicketRequestException.class, () -> reader.read(json("{\"userId\": {}, \"lines\": [\"000\"]}")));
+    }
+}